@@ -0,0 +1,157 @@
+package com.vasanth.barcodescannerlib.image;
+
+import android.content.Context;
+import android.graphics.ImageFormat;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.barcode.Barcode;
+import com.google.android.gms.vision.barcode.BarcodeDetector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Instrumented test, which compares decoding with preprocessing on & off (Refer - {@link PreprocessingDetector}).
+ * <p>
+ * 1. Decodes the same low contrast, noisy NV21 frames of a known EAN-13 barcode with each preprocessing setting &
+ * logs decode success & average time per frame (Tag - "BS Decode").
+ * 2. Needs Google Play services on the device, skipped until barcode detector is operational.
+ * 3. YuvPreprocessorBenchmark measures only the preprocessing cost, this is where the decode gain is checked.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PreprocessingDecodeTest {
+
+    private static final String TAG = "BS Decode";
+    private static final String RAW_VALUE = "4006381333931";
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int MODULE_WIDTH = 5; // Pixels per EAN-13 module.
+    private static final int BACKGROUND_LUMINANCE = 128;
+    private static final int[] CONTRASTS = {40, 20, 10}; // Background - bar luminance.
+    private static final double NOISE_SIGMA = 6.0;
+    private static final int FRAMES_PER_CONTRAST = 10;
+    private static final int[] FLAGS = {0, YuvPreprocessor.FLAG_CONTRAST_STRETCH, YuvPreprocessor.FLAG_ADAPTIVE_THRESHOLD,
+            YuvPreprocessor.FLAG_CONTRAST_STRETCH | YuvPreprocessor.FLAG_ADAPTIVE_THRESHOLD};
+
+    // EAN-13 encoding tables.
+    private static final String[] L_CODES = {"0001101", "0011001", "0010011", "0111101", "0100011",
+            "0110001", "0101111", "0111011", "0110111", "0001011"};
+    private static final String[] G_CODES = {"0100111", "0110011", "0011011", "0100001", "0011101",
+            "0111001", "0000101", "0010001", "0001001", "0010111"};
+    private static final String[] R_CODES = {"1110010", "1100110", "1101100", "1000010", "1011100",
+            "1001110", "1010000", "1000100", "1001000", "1110100"};
+    private static final String[] PARITIES = {"LLLLLL", "LLGLGG", "LLGGLG", "LLGGGL", "LGLLGG",
+            "LGGLLG", "LGGGLG", "LGLGGL", "LGLGLG", "LGGLGL"};
+
+    private BarcodeDetector barcodeDetector;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        barcodeDetector = new BarcodeDetector.Builder(context).setBarcodeFormats(Barcode.EAN_13).build();
+    }
+
+    @After
+    public void tearDown() {
+        barcodeDetector.release();
+    }
+
+    @Test
+    public void lowContrastFrames_decodeWithAndWithoutPreprocessing() {
+        assumeTrue(barcodeDetector.isOperational());
+        String modules = encodeEan13(RAW_VALUE);
+
+        for (int contrast : CONTRASTS) {
+            int[] decodedCounts = new int[FLAGS.length];
+            for (int i = 0; i < FLAGS.length; i++) {
+                // Not released, as it would release the shared barcode detector.
+                Detector<Barcode> detector = FLAGS[i] == 0 ? barcodeDetector : new PreprocessingDetector(barcodeDetector, FLAGS[i]);
+                long totalNanos = 0;
+                for (int frameIndex = 0; frameIndex < FRAMES_PER_CONTRAST; frameIndex++) {
+                    byte[] nv21 = renderFrame(modules, contrast, new Random(frameIndex));
+                    Frame frame = new Frame.Builder()
+                            .setImageData(ByteBuffer.wrap(nv21), WIDTH, HEIGHT, ImageFormat.NV21)
+                            .setId(frameIndex)
+                            .build();
+                    long startNanos = System.nanoTime();
+                    SparseArray<Barcode> barcodes = detector.detect(frame);
+                    totalNanos += System.nanoTime() - startNanos;
+                    if (containsRawValue(barcodes)) {
+                        decodedCounts[i]++;
+                    }
+                }
+                Log.i(TAG, "Contrast " + contrast + ", flags " + FLAGS[i] + " - Decoded " + decodedCounts[i] + "/" + FRAMES_PER_CONTRAST
+                        + ", " + (totalNanos / FRAMES_PER_CONTRAST / 1000) + " us per frame");
+            }
+            // Stretching can only spread the luminance range, so it must not lose frames the plain detector decodes.
+            assertTrue("Contrast stretch decoded fewer frames at contrast " + contrast, decodedCounts[1] >= decodedCounts[0]);
+        }
+    }
+
+    // PRIVATE METHODS.
+    private static boolean containsRawValue(final SparseArray<Barcode> barcodes) {
+        for (int i = 0; i < barcodes.size(); i++) {
+            if (RAW_VALUE.equals(barcodes.valueAt(i).rawValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 95 modules, '1' is bar.
+     */
+    private static String encodeEan13(final String digits) {
+        StringBuilder modules = new StringBuilder("101");
+        String parity = PARITIES[digits.charAt(0) - '0'];
+        for (int i = 1; i <= 6; i++) {
+            int digit = digits.charAt(i) - '0';
+            modules.append(parity.charAt(i - 1) == 'L' ? L_CODES[digit] : G_CODES[digit]);
+        }
+        modules.append("01010");
+        for (int i = 7; i <= 12; i++) {
+            modules.append(R_CODES[digits.charAt(i) - '0']);
+        }
+        modules.append("101");
+        return modules.toString();
+    }
+
+    /**
+     * Barcode centered in a gray frame, with gaussian sensor noise & neutral chroma.
+     */
+    private static byte[] renderFrame(final String modules, final int contrast, final Random random) {
+        byte[] nv21 = new byte[YuvPreprocessor.getNv21Size(WIDTH, HEIGHT)];
+        int barcodeWidth = modules.length() * MODULE_WIDTH;
+        int left = (WIDTH - barcodeWidth) / 2;
+        int top = HEIGHT / 4;
+        int bottom = HEIGHT * 3 / 4;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int luminance = BACKGROUND_LUMINANCE;
+                int module = (x - left) / MODULE_WIDTH;
+                if (y >= top && y < bottom && x >= left && module < modules.length() && modules.charAt(module) == '1') {
+                    luminance -= contrast;
+                }
+                luminance += (int) Math.round(random.nextGaussian() * NOISE_SIGMA);
+                nv21[y * WIDTH + x] = (byte) Math.max(0, Math.min(255, luminance));
+            }
+        }
+        for (int i = WIDTH * HEIGHT; i < nv21.length; i++) {
+            nv21[i] = (byte) 128;
+        }
+        return nv21;
+    }
+}
@@ -7,35 +7,54 @@ import android.app.Dialog;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.pm.PackageManager;
+import android.content.res.Configuration;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.provider.Settings;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.Snackbar;
 import android.support.v7.app.AppCompatActivity;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 import android.view.View;
 import android.view.Window;
 import android.view.WindowManager;
+import android.widget.ProgressBar;
 
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
-import com.google.android.gms.vision.CameraSource;
+import com.google.android.gms.common.images.Size;
 import com.google.android.gms.vision.Detector;
 import com.google.android.gms.vision.MultiProcessor;
 import com.google.android.gms.vision.Tracker;
 import com.google.android.gms.vision.barcode.Barcode;
-import com.google.android.gms.vision.barcode.BarcodeDetector;
+import com.vasanth.barcodescannerlib.acceptance.AcceptanceContext;
+import com.vasanth.barcodescannerlib.acceptance.AcceptancePolicies;
+import com.vasanth.barcodescannerlib.acceptance.AcceptancePolicy;
+import com.vasanth.barcodescannerlib.acceptance.AcceptancePolicyChain;
+import com.vasanth.barcodescannerlib.acceptance.BarcodeCandidate;
+import com.vasanth.barcodescannerlib.camera.BarcodeScannerController;
+import com.vasanth.barcodescannerlib.camera.ScanDegradationMonitor;
+import com.vasanth.barcodescannerlib.diagnostics.ScanDiagnostics;
+import com.vasanth.barcodescannerlib.image.YuvPreprocessor;
+import com.vasanth.barcodescannerlib.lookup.CachingBarcodeResolver;
 import com.vasanth.barcodescannerlib.ui.BarcodeScannerOverlayView;
+import com.vasanth.barcodescannerlib.ui.DisplayRotationWatcher;
+import com.vasanth.barcodescannerlib.ui.ViewFinderGeometry;
 import com.vasanth.userpermission.RequestUserPermissionActivity;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Barcode Scanner Activity.
  * <p>
@@ -47,10 +66,16 @@ import com.vasanth.userpermission.RequestUserPermissionActivity;
  * 2. Result.
  * 2.a. Once barcode is detected, we will send result back to calling activity with the following Extra data's,
  * 2.a.1. Barcode - EXTRAS_RESULT_BARCODE (Refer - https://developers.google.com/android/reference/com/google/android/gms/vision/barcode/Barcode)
+ * 2.a.2. Resolved Record - EXTRAS_RESULT_RECORD - Only if resolver is set using {@link #setBarcodeResolver(CachingBarcodeResolver)} & record is found.
  * <p>
  * 3. Notes.
  * 3.a. Add "Camera" permission to manifest file.
- * 3.b. Declare this activity in "Landscape mode" in manifest file.
+ * 3.b. Activity supports all four orientations, camera is restarted when display rotation changes,
+ * so that preview & frame rotation follow the display.
+ * 3.c. Optional frame preprocessing can be enabled using {@link #getIntent(Context, int)}.
+ * 3.d. Debug overlay (used to tune view finder) can be enabled using {@link #getIntent(Context, int, boolean)}.
+ * 3.e. Detector & camera are owned by {@link BarcodeScannerController}, which is retained across configuration changes.
+ * 3.f. Which detected barcode is accepted as result can be customised using {@link #setAcceptancePolicy(AcceptancePolicyChain)}.
  * <p>
  * 4. Reference.
  * 4.a. https://developers.google.com/vision/barcodes-overview
@@ -65,18 +90,93 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         return intent;
     }
 
+    /**
+     * Used to get intent with frame preprocessing enabled (Ex - Poor lighting).
+     * <p>
+     * 1. Flags can be combined, steps run in order - Contrast stretch, adaptive threshold, rotate (Refer - PreprocessingDetector).
+     *
+     * @param context            Context.
+     * @param preprocessingFlags {@link YuvPreprocessor} FLAG_* flags.
+     * @return Intent.
+     */
+    @NonNull
+    public static Intent getIntent(@NonNull final Context context, final int preprocessingFlags) {
+        Intent intent = getIntent(context);
+        intent.putExtra(EXTRAS_PREPROCESSING_FLAGS, preprocessingFlags);
+        return intent;
+    }
+
+    /**
+     * Used to get intent with debug overlay enabled, used to tune the view finder.
+     * <p>
+     * 1. Overlay draws detection heatmap, rejected barcode's with reason & decode FPS / latency.
+     *
+     * @param context            Context.
+     * @param preprocessingFlags {@link YuvPreprocessor} FLAG_* flags.
+     * @param isDebugOverlay     TRUE to enable debug overlay.
+     * @return Intent.
+     */
+    @NonNull
+    public static Intent getIntent(@NonNull final Context context, final int preprocessingFlags, final boolean isDebugOverlay) {
+        Intent intent = getIntent(context, preprocessingFlags);
+        intent.putExtra(EXTRAS_DEBUG_OVERLAY, isDebugOverlay);
+        return intent;
+    }
+
+    /**
+     * Used to set policies which decide if a detected barcode is accepted as scan result.
+     * <p>
+     * 1. Default - Barcode must be fully inside view finder & must cross the laser line.
+     * 2. Ex - Accept large QR codes partially inside view finder,
+     * new AcceptancePolicyChain(AcceptancePolicies.formats(Barcode.QR_CODE), AcceptancePolicies.intersectsViewFinder(50), AcceptancePolicies.largest())
+     *
+     * @param policyChain Policy chain or NULL to use default.
+     * @see AcceptancePolicies
+     */
+    public static void setAcceptancePolicy(@Nullable final AcceptancePolicyChain policyChain) {
+        acceptancePolicyChain = policyChain;
+    }
+
+    /**
+     * Used to set resolver which looks up the scanned barcode (Ex - In a product catalogue).
+     * <p>
+     * 1. Set it once (Ex - Application#onCreate), so that its cache survives across scans.
+     * 2. Lookup is started as soon as barcode is detected, so that record is ready when barcode is accepted.
+     *
+     * @param resolver Resolver or NULL to disable lookup.
+     */
+    public static void setBarcodeResolver(@Nullable final CachingBarcodeResolver<? extends Parcelable> resolver) {
+        barcodeResolver = resolver;
+    }
+
     public static final String EXTRAS_RESULT_BARCODE = "EXTRAS_RESULT_BARCODE";
+    public static final String EXTRAS_RESULT_RECORD = "EXTRAS_RESULT_RECORD";
 
     private static final String TAG = "BarcodeScanner";
+    private static final String EXTRAS_PREPROCESSING_FLAGS = "EXTRAS_PREPROCESSING_FLAGS";
+    private static final String EXTRAS_DEBUG_OVERLAY = "EXTRAS_DEBUG_OVERLAY";
     private static final int REQUEST_CODE_REQUEST_CAMERA_PERMISSION = 101;
     private static final int GOOGLE_PLAY_REQUEST_CODE = 2001;
+    private static final long RESOLVE_TIMEOUT_MILLIS = 1500L;
+
+    private static volatile CachingBarcodeResolver<? extends Parcelable> barcodeResolver;
+    private static volatile AcceptancePolicyChain acceptancePolicyChain;
 
     private SurfaceView surfaceView;
     private BarcodeScannerOverlayView barcodeScannerOverlayView;
-    private CameraSource cameraSource;
-
-    private boolean startRequested;
-    private boolean surfaceAvailable;
+    private ProgressBar progressBar;
+    private BarcodeScannerController scannerController;
+    private ScanDegradationMonitor degradationMonitor;
+    private final ViewFinderGeometry viewFinderGeometry = new ViewFinderGeometry();
+    private final AcceptancePolicyChain defaultAcceptancePolicyChain = AcceptancePolicyChain.createDefault();
+    private final BarcodeCandidate barcodeCandidate = new BarcodeCandidate();
+    private final AcceptanceContext acceptanceContext = new AcceptanceContext();
+    private final FrameCandidateSource frameCandidateSource = new FrameCandidateSource();
+    private DisplayRotationWatcher displayRotationWatcher;
+    private ScanDiagnostics diagnostics;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Set once the first barcode is accepted, so that only one result is sent.
+    private final AtomicBoolean isResultSent = new AtomicBoolean();
 
     // Activity METHODS.
     @Override
@@ -93,30 +193,76 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         surfaceView = (SurfaceView) findViewById(R.id.activityBarcodeScanner_surfaceView);
         surfaceView.getHolder().addCallback(new SurfaceCallback());
         barcodeScannerOverlayView = (BarcodeScannerOverlayView) findViewById(R.id.activityBarcodeScanner_barcodeScannerOverlayView);
-        startRequested = false;
-        surfaceAvailable = false;
+        progressBar = (ProgressBar) findViewById(R.id.activityBarcodeScanner_progressBar);
 
-        // Check if device has CAMERA.
-        if (getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA)) {
-            // Check if we have camera permission.
-            checkIfWeHavePermissionToCamera();
-        } else {
-            showErrorDialog(getString(R.string.barcodeScanner_error_noCameraFeature), true);
+        // Reuse the controller (i.e detector & camera) if activity is re-created due to configuration change.
+        scannerController = (BarcodeScannerController) getLastCustomNonConfigurationInstance();
+        if (scannerController == null) {
+            scannerController = new BarcodeScannerController();
+        }
+        scannerController.setCallback(new ScannerControllerCallback());
+        degradationMonitor = new ScanDegradationMonitor(this, scannerController);
+        if (getIntent().getBooleanExtra(EXTRAS_DEBUG_OVERLAY, false)) {
+            diagnostics = new ScanDiagnostics();
+            barcodeScannerOverlayView.setDiagnostics(diagnostics);
+        }
+        scannerController.setDiagnostics(diagnostics);
+        displayRotationWatcher = new DisplayRotationWatcher(this, new DisplayRotationWatcher.Listener() {
+            @Override
+            public void onDisplayRotationChanged(int rotation) {
+                // Camera applies display rotation (to preview & frame metadata) only on start.
+                scannerController.restart();
+            }
+        });
+
+        // Warm up records of recently scanned codes.
+        CachingBarcodeResolver<? extends Parcelable> resolver = barcodeResolver;
+        if (resolver != null) {
+            resolver.prefetchRecentCodes();
+        }
+
+        // Retained camera source means we already have the camera & its permission.
+        if (!scannerController.isInitialized()) {
+            // Check if device has CAMERA.
+            if (getPackageManager().hasSystemFeature(PackageManager.FEATURE_CAMERA)) {
+                // Check if we have camera permission.
+                checkIfWeHavePermissionToCamera();
+            } else {
+                progressBar.setVisibility(View.GONE);
+                showErrorDialog(getString(R.string.barcodeScanner_error_noCameraFeature), true);
+            }
         }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
+        // Before camera start, so that rotation changed while paused doesn't restart the camera (Refer - DisplayRotationWatcher#start).
+        displayRotationWatcher.start();
         startCameraSource();
+        degradationMonitor.start();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
+        displayRotationWatcher.stop();
+        degradationMonitor.stop();
         stopCameraSource();
     }
 
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        displayRotationWatcher.checkRotation();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        degradationMonitor.onTrimMemory(level);
+    }
+
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         if (requestCode == REQUEST_CODE_REQUEST_CAMERA_PERMISSION) {
@@ -126,10 +272,20 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    public Object onRetainCustomNonConfigurationInstance() {
+        return scannerController;
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        releaseCameraSource();
+        mainHandler.removeCallbacksAndMessages(null);
+        if (isChangingConfigurations()) {
+            scannerController.setCallback(null);
+        } else {
+            releaseCameraSource();
+        }
     }
 
     // PRIVATE METHODS.
@@ -158,6 +314,7 @@ public class BarcodeScannerActivity extends AppCompatActivity {
     }
 
     private void weDontHavePermissionToCamera() {
+        progressBar.setVisibility(View.GONE);
         Snackbar.make(surfaceView, getString(R.string.barcodeScanner_cameraPermission_deniedMessage), Snackbar.LENGTH_INDEFINITE)
                 .setAction(getString(R.string.settings), new View.OnClickListener() {
                     @Override
@@ -182,13 +339,12 @@ public class BarcodeScannerActivity extends AppCompatActivity {
     private class SurfaceCallback implements SurfaceHolder.Callback {
         @Override
         public void surfaceCreated(SurfaceHolder surface) {
-            surfaceAvailable = true;
-            startIfReady();
+            scannerController.setSurface(surface);
         }
 
         @Override
         public void surfaceDestroyed(SurfaceHolder surface) {
-            surfaceAvailable = false;
+            scannerController.setSurface(null);
         }
 
         @Override
@@ -196,44 +352,30 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Create detector & camera source asynchronously, result is delivered to {@link ScannerControllerCallback}.
+     */
     private void createCameraSource() {
-        Context context = getApplicationContext();
-
-        // Create barcode detector to track barcode's.
-        BarcodeDetector barcodeDetector = new BarcodeDetector.Builder(context).build();
-        BarcodeTrackerFactory barcodeFactory = new BarcodeTrackerFactory();
-        barcodeDetector.setProcessor(
-                new MultiProcessor.Builder<>(barcodeFactory).build());
-
-        // Check if barcode dependencies are available.
-        if (barcodeDetector.isOperational()) {
-            // Creates the camera.
-            cameraSource = new CameraSource.Builder(context, barcodeDetector)
-                    .setFacing(CameraSource.CAMERA_FACING_BACK)
-                    .setRequestedPreviewSize(1600, 1024)
-                    .setRequestedFps(15.0f)
-                    .setAutoFocusEnabled(true)
-                    .build();
-        } else {
-            // Barcode dependencies are not yet available.
-            // Check for low storage.  If there is low storage, the native library will not be downloaded, so detection will not become operational.
-            IntentFilter lowStorageFilter = new IntentFilter(Intent.ACTION_DEVICE_STORAGE_LOW);
-            boolean hasLowStorage = registerReceiver(null, lowStorageFilter) != null;
-            if (hasLowStorage) {
-                showErrorDialog(getString(R.string.barcodeScanner_error_dependenciesNotDownloadedDueToLowMemory), true);
-            } else {
-                showErrorDialog(getString(R.string.barcodeScanner_error_dependenciesNotDownloaded), true);
-            }
-        }
+        int preprocessingFlags = getIntent().getIntExtra(EXTRAS_PREPROCESSING_FLAGS, 0);
+        scannerController.initialize(this, new BarcodeTrackerFactory(scannerController), preprocessingFlags);
     }
 
+    /**
+     * Used to start the camera.
+     * <p>
+     * 1. Progress is shown only if detector is requested (i.e we have camera permission), as only then a controller callback
+     * (started / failed / not operational) follows to hide it. Else, start is requested once permission is granted (i.e on next onResume).
+     */
     private void startCameraSource() {
+        if (!scannerController.isInitialized()) {
+            return;
+        }
         // check that the device has play services available.
         int code = GoogleApiAvailability.getInstance().isGooglePlayServicesAvailable(
                 getApplicationContext());
         if (code == ConnectionResult.SUCCESS) {
-            startRequested = true;
-            startIfReady();
+            progressBar.setVisibility(View.VISIBLE);
+            scannerController.start();
         } else {
             Dialog dlg =
                     GoogleApiAvailability.getInstance().getErrorDialog(this, code, GOOGLE_PLAY_REQUEST_CODE);
@@ -242,43 +384,77 @@ public class BarcodeScannerActivity extends AppCompatActivity {
     }
 
     private void stopCameraSource() {
-        if (cameraSource != null) {
-            cameraSource.stop();
-        }
+        scannerController.stop();
     }
 
     private void releaseCameraSource() {
-        if (cameraSource != null) {
-            cameraSource.release();
-        }
+        scannerController.release();
     }
 
     /**
-     * Start Camera source if every thing is ready.
+     * Scanner Controller Callback.
+     * <p>
+     * 1. Progress is shown until first preview is reached.
+     * 2. Missing detector dependencies & camera start failure (after retries) are shown to the user.
+     * 3. Overlay animation is paused while scanner is idle.
+     * 4. Detected barcode is processed.
      */
-    private void startIfReady() {
-        if (startRequested && surfaceAvailable && cameraSource != null && surfaceView != null) {
-            try {
-                cameraSource.start(surfaceView.getHolder());
-                startRequested = false;
-            } catch (Exception e) {
-                cameraSource.release();
-                cameraSource = null;
-                Log.e(TAG, e.getMessage());
+    private class ScannerControllerCallback implements BarcodeScannerController.Callback {
+
+        @Override
+        public void onCameraSourceReady() {
+        }
+
+        @Override
+        public void onDetectorNotOperational(boolean hasLowStorage) {
+            progressBar.setVisibility(View.GONE);
+            if (hasLowStorage) {
+                showErrorDialog(getString(R.string.barcodeScanner_error_dependenciesNotDownloadedDueToLowMemory), true);
+            } else {
+                showErrorDialog(getString(R.string.barcodeScanner_error_dependenciesNotDownloaded), true);
             }
         }
+
+        @Override
+        public void onCameraStarted() {
+            progressBar.setVisibility(View.GONE);
+        }
+
+        @Override
+        public void onCameraStartFailed(@NonNull Exception e) {
+            Log.e(TAG, "Camera start failed", e);
+            progressBar.setVisibility(View.GONE);
+            showErrorDialog(getString(R.string.barcodeScanner_error_cameraStartFailed), true);
+        }
+
+        @Override
+        public void onIdleChanged(boolean idle) {
+            barcodeScannerOverlayView.setIdle(idle);
+        }
+
+        @Override
+        public void onBarcodeDetected(@NonNull SparseArray<Barcode> frameBarcodes, @NonNull Barcode barcode) {
+            processDetectedBarcode(frameBarcodes, barcode);
+        }
     }
 
     /**
      * Barcode Tracker Factory.
      * <p>
      * Used to create Tracker instance for Barcode item.
+     * Static, as detector (and so its trackers) may outlive this activity instance.
      */
-    class BarcodeTrackerFactory implements MultiProcessor.Factory<Barcode> {
+    static class BarcodeTrackerFactory implements MultiProcessor.Factory<Barcode> {
+
+        private final BarcodeScannerController scannerController;
+
+        BarcodeTrackerFactory(@NonNull final BarcodeScannerController scannerController) {
+            this.scannerController = scannerController;
+        }
 
         @Override
         public Tracker<Barcode> create(Barcode barcode) {
-            return new BarcodeTracker();
+            return new BarcodeTracker(scannerController);
         }
     }
 
@@ -287,16 +463,21 @@ public class BarcodeScannerActivity extends AppCompatActivity {
      * <p>
      * A tracker is used to receive notifications for a detected barcode item.
      */
-    class BarcodeTracker extends Tracker<Barcode> {
+    static class BarcodeTracker extends Tracker<Barcode> {
+
+        private final BarcodeScannerController scannerController;
 
+        BarcodeTracker(@NonNull final BarcodeScannerController scannerController) {
+            this.scannerController = scannerController;
+        }
 
         /**
          * Method is called to indicate that barcode item is detected.
          * <p>
-         * 1. Process detected barcode.
+         * 1. Dispatch detected barcode to current activity.
          */
         public void onUpdate(Detector.Detections<Barcode> detections, final Barcode barcode) {
-            processDetectedBarcode(barcode);
+            scannerController.dispatchBarcode(detections.getDetectedItems(), barcode);
         }
     }
 
@@ -305,62 +486,156 @@ public class BarcodeScannerActivity extends AppCompatActivity {
      * Method used to process detected barcode.
      * <p>
      * 1. Check if we can read a barcode or not.
-     * 2. Check if detected barcode is lies inside view finder view.
-     * 2.a. If YES then send result.
+     * 2. Check if detected barcode is accepted by acceptance policies (By default - Inside view finder & on laser line).
+     * 2.a. If YES then send result, only for the first accepted barcode.
      *
-     * @param barcode Detected Barcode.
+     * @param frameBarcodes All barcode's detected in the same frame.
+     * @param barcode       Detected Barcode.
      */
-    private synchronized void processDetectedBarcode(final Barcode barcode) {
-        if (barcodeScannerOverlayView != null && cameraSource != null && cameraSource.getPreviewSize() != null &&
-                checkIfBarcodePresentInsideViewFinderAndIsOnLaserLine(barcodeScannerOverlayView.getScreenResolution(), barcodeScannerOverlayView.getViewFinderRect(),
-                        new Point(cameraSource.getPreviewSize().getWidth(), cameraSource.getPreviewSize().getHeight()), barcode.getBoundingBox(),
-                        barcodeScannerOverlayView.getViewFinderMiddleY())) {
+    private synchronized void processDetectedBarcode(final SparseArray<Barcode> frameBarcodes, final Barcode barcode) {
+        if (checkIfBarcodeIsAccepted(frameBarcodes, barcode) && isResultSent.compareAndSet(false, true)) {
             // Send Result.
             sendResultToCallingActivity(barcode);
         }
     }
 
     /**
-     * Used to check if barcode is present inside view finder and is on laser line.
+     * Used to check if barcode is accepted.
      * <p>
-     * 1. ScreenResolution & cameraPreviewResolution may be in different size.
-     * 2. Get the ratio by with both screenResolution & cameraPreviewResolution vary.
-     * 3. Get the updated barcodeRect value depending upon ratio.
-     * 4. Check if barcode is inside view finder.
-     * 5. Check if barcode is in center of view finder view (i.e on the laser line).
+     * 1. Update view finder geometry - It is recomputed only when screen, camera preview or view finder changes (Ex - Orientation change).
+     * 2. Map barcode to screen & evaluate acceptance policies, cheapest first (Refer - {@link AcceptancePolicyChain}).
+     * 3. If debug overlay is enabled, record the result (Ex - Rejection reason).
      *
-     * @param screenResolution        Screen Resolution.
-     * @param viewFinderRect          View finder rectangle coordinates.
-     * @param cameraPreviewResolution Camera Preview Resolution.
-     * @param barcodeRect             Detected barcode rectangle coordinates.
-     * @return TRUE if barcode present inside view finder.
+     * @param frameBarcodes All barcode's detected in the same frame.
+     * @param barcode       Detected Barcode.
+     * @return TRUE if barcode is accepted.
+     * @see ViewFinderGeometry
      */
-    private boolean checkIfBarcodePresentInsideViewFinderAndIsOnLaserLine(final Point screenResolution, final Rect viewFinderRect, final Point cameraPreviewResolution,
-                                                                          final Rect barcodeRect, int viewFinderMiddleY) {
-        boolean isBarcodePresentInsideViewFinder = false;
+    private boolean checkIfBarcodeIsAccepted(final SparseArray<Barcode> frameBarcodes, final Barcode barcode) {
+        Size previewSize = scannerController.getPreviewSize();
+        Point screenResolution = barcodeScannerOverlayView != null ? barcodeScannerOverlayView.getScreenResolution() : null;
+        Rect viewFinderRect = barcodeScannerOverlayView != null ? barcodeScannerOverlayView.getViewFinderRect() : null;
+        Rect barcodeRect = barcode.getBoundingBox();
+        if (previewSize == null || screenResolution == null || viewFinderRect == null || barcodeRect == null) {
+            return false;
+        }
 
-        if (screenResolution != null && viewFinderRect != null && cameraPreviewResolution != null && barcodeRect != null) {
-            // Get the ratio by with both screenResolution & cameraPreviewResolution vary.
-            double ratioWidth = (double) screenResolution.x / (double) cameraPreviewResolution.x;
-            double ratioHeight = (double) screenResolution.y / (double) cameraPreviewResolution.y;
+        viewFinderGeometry.update(screenResolution.x, screenResolution.y, previewSize.getWidth(), previewSize.getHeight(),
+                viewFinderRect.left, viewFinderRect.top, viewFinderRect.right, viewFinderRect.bottom);
+        barcodeCandidate.set(viewFinderGeometry.toScreenX(barcodeRect.left), viewFinderGeometry.toScreenY(barcodeRect.top),
+                viewFinderGeometry.toScreenX(barcodeRect.right), viewFinderGeometry.toScreenY(barcodeRect.bottom), barcode.format);
+
+        int result;
+        if (viewFinderGeometry.isValid()) {
+            frameCandidateSource.setFrameBarcodes(frameBarcodes);
+            acceptanceContext.set(viewFinderRect.left, viewFinderRect.top, viewFinderRect.right, viewFinderRect.bottom,
+                    viewFinderGeometry.getLaserLineY(), frameCandidateSource);
+            AcceptancePolicyChain policyChain = acceptancePolicyChain;
+            result = (policyChain != null ? policyChain : defaultAcceptancePolicyChain).evaluate(barcodeCandidate, acceptanceContext);
+        } else {
+            result = AcceptancePolicy.REASON_NO_GEOMETRY;
+        }
+        boolean isAccepted = result == AcceptancePolicy.RESULT_ACCEPTED;
 
-            // Get the updated barcodeRect value depending upon ratio.
-            Rect barcodeRectUpdated = new Rect((int) (barcodeRect.left * ratioWidth), (int) (barcodeRect.top * ratioHeight),
-                    (int) (barcodeRect.right * ratioWidth), (int) (barcodeRect.bottom * ratioHeight));
+        if (diagnostics != null) {
+            diagnostics.onBarcodeChecked(barcodeCandidate.getLeft(), barcodeCandidate.getTop(), barcodeCandidate.getRight(), barcodeCandidate.getBottom(),
+                    isAccepted, result, screenResolution.x, screenResolution.y, SystemClock.elapsedRealtime());
+        }
+        return isAccepted;
+    }
+
+    /**
+     * Frame Candidate Source.
+     * <p>
+     * 1. Maps barcode's detected in current frame to screen space, only when a policy needs them (Ex - Largest).
+     * 2. Bounds are computed from corner points, so that no Rect is allocated.
+     */
+    private class FrameCandidateSource implements AcceptanceContext.FrameCandidateSource {
+
+        private SparseArray<Barcode> frameBarcodes;
+
+        void setFrameBarcodes(final SparseArray<Barcode> frameBarcodes) {
+            this.frameBarcodes = frameBarcodes;
+        }
 
-            // Check if barcode is inside view finder & is in the middle (Y) of view finder.
-            isBarcodePresentInsideViewFinder = (viewFinderRect.contains(barcodeRectUpdated)) &&
-                    (barcodeRectUpdated.contains((barcodeRectUpdated.left + 1), viewFinderMiddleY));
+        @Override
+        public int fill(@NonNull BarcodeCandidate[] candidates) {
+            int count = 0;
+            for (int i = 0; frameBarcodes != null && i < frameBarcodes.size() && count < candidates.length; i++) {
+                Barcode barcode = frameBarcodes.valueAt(i);
+                Point[] cornerPoints = barcode.cornerPoints;
+                if (cornerPoints == null || cornerPoints.length == 0) {
+                    continue;
+                }
+                int left = Integer.MAX_VALUE;
+                int top = Integer.MAX_VALUE;
+                int right = Integer.MIN_VALUE;
+                int bottom = Integer.MIN_VALUE;
+                for (Point point : cornerPoints) {
+                    left = Math.min(left, point.x);
+                    top = Math.min(top, point.y);
+                    right = Math.max(right, point.x);
+                    bottom = Math.max(bottom, point.y);
+                }
+                candidates[count++].set(viewFinderGeometry.toScreenX(left), viewFinderGeometry.toScreenY(top),
+                        viewFinderGeometry.toScreenX(right), viewFinderGeometry.toScreenY(bottom), barcode.format);
+            }
+            return count;
         }
-        return isBarcodePresentInsideViewFinder;
     }
 
     /**
      * Used to send result to calling activity.
+     * <p>
+     * 1. If resolver is set, look up the record (only now that barcode is accepted) & send it too.
+     * 2. Detector thread is not blocked - Result is sent on UI thread once record is resolved or after RESOLVE_TIMEOUT_MILLIS,
+     * whichever is first.
      */
     private void sendResultToCallingActivity(final Barcode barcode) {
+        CachingBarcodeResolver<? extends Parcelable> resolver = barcodeResolver;
+        if (resolver == null || barcode.rawValue == null) {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    finishWithResult(barcode, null);
+                }
+            });
+            return;
+        }
+
+        final Runnable timeoutRunnable = new Runnable() {
+            @Override
+            public void run() {
+                finishWithResult(barcode, null);
+            }
+        };
+        mainHandler.postDelayed(timeoutRunnable, RESOLVE_TIMEOUT_MILLIS);
+        resolver.get(barcode.rawValue, new CachingBarcodeResolver.Callback<Parcelable>() {
+            @Override
+            public void onRecordResolved(@NonNull String rawValue, @Nullable final Parcelable record) {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mainHandler.removeCallbacks(timeoutRunnable);
+                        finishWithResult(barcode, record);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Called on UI thread, once.
+     */
+    private void finishWithResult(@NonNull final Barcode barcode, @Nullable final Parcelable record) {
+        if (isFinishing()) {
+            return;
+        }
         Intent resultIntent = new Intent();
         resultIntent.putExtra(EXTRAS_RESULT_BARCODE, barcode);
+        if (record != null) {
+            resultIntent.putExtra(EXTRAS_RESULT_RECORD, record);
+        }
         setResult(Activity.RESULT_OK, resultIntent);
         finish();
     }
@@ -0,0 +1,120 @@
+package com.vasanth.barcodescannerlib.acceptance;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Acceptance Context.
+ * <p>
+ * 1. Everything (other than the candidate itself) an {@link AcceptancePolicy} may check against - View finder, laser line
+ * & all barcode's detected in the same frame.
+ * 2. Frame candidates are collected lazily, only when a policy asks for them (Ex - Largest, Center nearest), so cheap policies
+ * don't pay for it.
+ * 3. Mutable & reused across frames, coordinates are in screen space.
+ *
+ * @author Vasanth
+ */
+public class AcceptanceContext {
+
+    /**
+     * Source of barcode's detected in current frame.
+     */
+    public interface FrameCandidateSource {
+
+        /**
+         * Used to fill frame candidates.
+         *
+         * @param candidates Candidates to fill.
+         * @return Number of candidates filled.
+         */
+        int fill(@NonNull BarcodeCandidate[] candidates);
+    }
+
+    public static final int MAX_FRAME_CANDIDATES = 16;
+
+    private int viewFinderLeft;
+    private int viewFinderTop;
+    private int viewFinderRight;
+    private int viewFinderBottom;
+    private int laserLineY;
+
+    private final BarcodeCandidate[] frameCandidates;
+    @Nullable
+    private FrameCandidateSource frameCandidateSource;
+    private int frameCandidateCount = -1;
+
+    public AcceptanceContext() {
+        frameCandidates = new BarcodeCandidate[MAX_FRAME_CANDIDATES];
+        for (int i = 0; i < MAX_FRAME_CANDIDATES; i++) {
+            frameCandidates[i] = new BarcodeCandidate();
+        }
+    }
+
+    /**
+     * Used to set context for next check.
+     *
+     * @param viewFinderLeft       View finder left.
+     * @param viewFinderTop        View finder top.
+     * @param viewFinderRight      View finder right.
+     * @param viewFinderBottom     View finder bottom.
+     * @param laserLineY           Laser line Y.
+     * @param frameCandidateSource Source of barcode's detected in the same frame.
+     */
+    public void set(final int viewFinderLeft, final int viewFinderTop, final int viewFinderRight, final int viewFinderBottom,
+                    final int laserLineY, @Nullable final FrameCandidateSource frameCandidateSource) {
+        this.viewFinderLeft = viewFinderLeft;
+        this.viewFinderTop = viewFinderTop;
+        this.viewFinderRight = viewFinderRight;
+        this.viewFinderBottom = viewFinderBottom;
+        this.laserLineY = laserLineY;
+        this.frameCandidateSource = frameCandidateSource;
+        this.frameCandidateCount = -1;
+    }
+
+    public int getViewFinderLeft() {
+        return viewFinderLeft;
+    }
+
+    public int getViewFinderTop() {
+        return viewFinderTop;
+    }
+
+    public int getViewFinderRight() {
+        return viewFinderRight;
+    }
+
+    public int getViewFinderBottom() {
+        return viewFinderBottom;
+    }
+
+    public int getViewFinderCenterX() {
+        return (viewFinderLeft + viewFinderRight) / 2;
+    }
+
+    public int getViewFinderCenterY() {
+        return (viewFinderTop + viewFinderBottom) / 2;
+    }
+
+    public int getLaserLineY() {
+        return laserLineY;
+    }
+
+    /**
+     * @return Number of barcode's detected in the same frame (Including the candidate), collected on first call.
+     */
+    public int getFrameCandidateCount() {
+        if (frameCandidateCount < 0) {
+            frameCandidateCount = frameCandidateSource != null ? frameCandidateSource.fill(frameCandidates) : 0;
+        }
+        return frameCandidateCount;
+    }
+
+    /**
+     * @param index Index, less than {@link #getFrameCandidateCount()}.
+     * @return Barcode detected in the same frame.
+     */
+    @NonNull
+    public BarcodeCandidate getFrameCandidate(final int index) {
+        return frameCandidates[index];
+    }
+}
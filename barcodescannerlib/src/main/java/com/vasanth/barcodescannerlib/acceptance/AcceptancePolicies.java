@@ -0,0 +1,188 @@
+package com.vasanth.barcodescannerlib.acceptance;
+
+import android.support.annotation.NonNull;
+
+import com.google.android.gms.vision.barcode.Barcode;
+
+/**
+ * Acceptance Policies.
+ * <p>
+ * 1. Built-in {@link AcceptancePolicy}'s.
+ * 1.a. {@link #formats(int)} - Barcode format is one of the given formats.
+ * 1.b. {@link #insideViewFinder()} - Barcode is fully inside view finder.
+ * 1.c. {@link #onLaserLine()} - Barcode crosses the laser line.
+ * 1.d. {@link #intersectsViewFinder(int)} - Given percent of barcode area is inside view finder (Ex - Large QR codes, long 1D codes).
+ * 1.e. {@link #largest()} - Barcode is the largest in the frame.
+ * 1.f. {@link #centerNearest()} - Barcode center is the nearest to view finder center, among the barcode's in the frame.
+ *
+ * @author Vasanth
+ */
+public final class AcceptancePolicies {
+
+    private AcceptancePolicies() {
+    }
+
+    /**
+     * @param formats Accepted formats, OR of Barcode format constants (Ex - Barcode.QR_CODE | Barcode.EAN_13) or Barcode.ALL_FORMATS.
+     * @return Policy.
+     */
+    @NonNull
+    public static AcceptancePolicy formats(final int formats) {
+        return new AcceptancePolicy() {
+            @Override
+            public boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context) {
+                return formats == Barcode.ALL_FORMATS || (candidate.getFormat() & formats) != 0;
+            }
+
+            @Override
+            public int getCost() {
+                return COST_FIELD_CHECK;
+            }
+
+            @Override
+            public int getRejectionReason() {
+                return REASON_FORMAT;
+            }
+        };
+    }
+
+    @NonNull
+    public static AcceptancePolicy insideViewFinder() {
+        return new AcceptancePolicy() {
+            @Override
+            public boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context) {
+                return context.getViewFinderLeft() < context.getViewFinderRight() && context.getViewFinderTop() < context.getViewFinderBottom()
+                        && candidate.getLeft() >= context.getViewFinderLeft() && candidate.getTop() >= context.getViewFinderTop()
+                        && candidate.getRight() <= context.getViewFinderRight() && candidate.getBottom() <= context.getViewFinderBottom();
+            }
+
+            @Override
+            public int getCost() {
+                return COST_GEOMETRY_CHECK;
+            }
+
+            @Override
+            public int getRejectionReason() {
+                return REASON_OUTSIDE_VIEW_FINDER;
+            }
+        };
+    }
+
+    @NonNull
+    public static AcceptancePolicy onLaserLine() {
+        return new AcceptancePolicy() {
+            @Override
+            public boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context) {
+                int laserLineY = context.getLaserLineY();
+                return candidate.getLeft() + 1 < candidate.getRight()
+                        && candidate.getTop() <= laserLineY && laserLineY < candidate.getBottom();
+            }
+
+            @Override
+            public int getCost() {
+                return COST_GEOMETRY_CHECK;
+            }
+
+            @Override
+            public int getRejectionReason() {
+                return REASON_OFF_LASER_LINE;
+            }
+        };
+    }
+
+    /**
+     * @param minPercentInside Minimum percent (1 - 100) of barcode area which must be inside view finder.
+     * @return Policy.
+     */
+    @NonNull
+    public static AcceptancePolicy intersectsViewFinder(final int minPercentInside) {
+        return new AcceptancePolicy() {
+            @Override
+            public boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context) {
+                long area = candidate.getArea();
+                if (area == 0) {
+                    return false;
+                }
+                long insideWidth = Math.min(candidate.getRight(), context.getViewFinderRight()) - Math.max(candidate.getLeft(), context.getViewFinderLeft());
+                long insideHeight = Math.min(candidate.getBottom(), context.getViewFinderBottom()) - Math.max(candidate.getTop(), context.getViewFinderTop());
+                if (insideWidth <= 0 || insideHeight <= 0) {
+                    return false;
+                }
+                return insideWidth * insideHeight * 100 >= area * minPercentInside;
+            }
+
+            @Override
+            public int getCost() {
+                return COST_GEOMETRY_CHECK;
+            }
+
+            @Override
+            public int getRejectionReason() {
+                return REASON_NOT_INTERSECTING_VIEW_FINDER;
+            }
+        };
+    }
+
+    @NonNull
+    public static AcceptancePolicy largest() {
+        return new AcceptancePolicy() {
+            @Override
+            public boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context) {
+                long area = candidate.getArea();
+                int count = context.getFrameCandidateCount();
+                for (int i = 0; i < count; i++) {
+                    if (context.getFrameCandidate(i).getArea() > area) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public int getCost() {
+                return COST_FRAME_SCAN;
+            }
+
+            @Override
+            public int getRejectionReason() {
+                return REASON_NOT_LARGEST;
+            }
+        };
+    }
+
+    @NonNull
+    public static AcceptancePolicy centerNearest() {
+        return new AcceptancePolicy() {
+            @Override
+            public boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context) {
+                int centerX = context.getViewFinderCenterX();
+                int centerY = context.getViewFinderCenterY();
+                long distance = squaredDistance(candidate, centerX, centerY);
+                int count = context.getFrameCandidateCount();
+                for (int i = 0; i < count; i++) {
+                    if (squaredDistance(context.getFrameCandidate(i), centerX, centerY) < distance) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public int getCost() {
+                return COST_FRAME_SCAN;
+            }
+
+            @Override
+            public int getRejectionReason() {
+                return REASON_NOT_CENTER_NEAREST;
+            }
+        };
+    }
+
+    // PRIVATE METHODS.
+    private static long squaredDistance(@NonNull final BarcodeCandidate candidate, final int x, final int y) {
+        long dx = candidate.getCenterX() - x;
+        long dy = candidate.getCenterY() - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,49 @@
+package com.vasanth.barcodescannerlib.acceptance;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Acceptance Policy.
+ * <p>
+ * 1. Decides if a detected barcode is accepted as the scan result.
+ * 2. Policies are composed using {@link AcceptancePolicyChain}, which runs them cheapest first (Refer - {@link #getCost()}).
+ * 3. Built-in policies are in {@link AcceptancePolicies}.
+ *
+ * @author Vasanth
+ */
+public interface AcceptancePolicy {
+
+    // Evaluation result - Accepted or one of the rejection reasons, all scan result codes are defined here.
+    int RESULT_ACCEPTED = 0;
+    int REASON_NO_GEOMETRY = 1; // Screen / preview size not known yet, reported by BarcodeScannerActivity.
+    int REASON_OUTSIDE_VIEW_FINDER = 2;
+    int REASON_OFF_LASER_LINE = 3;
+    int REASON_FORMAT = 4;
+    int REASON_NOT_INTERSECTING_VIEW_FINDER = 5;
+    int REASON_NOT_LARGEST = 6;
+    int REASON_NOT_CENTER_NEAREST = 7;
+    int REASON_CUSTOM = 8;
+    int REASON_COUNT = 9; // Number of result codes above.
+
+    // Relative costs.
+    int COST_FIELD_CHECK = 0;
+    int COST_GEOMETRY_CHECK = 10;
+    int COST_FRAME_SCAN = 100;
+
+    /**
+     * @param candidate Detected barcode.
+     * @param context   View finder & other barcode's in the frame.
+     * @return TRUE if accepted.
+     */
+    boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context);
+
+    /**
+     * @return Relative cost (Ex - COST_*), cheaper policies run first.
+     */
+    int getCost();
+
+    /**
+     * @return Reason reported when this policy rejects (Ex - REASON_*).
+     */
+    int getRejectionReason();
+}
@@ -0,0 +1,74 @@
+package com.vasanth.barcodescannerlib.acceptance;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Acceptance Policy Chain.
+ * <p>
+ * 1. All policies must accept for the barcode to be accepted (i.e AND).
+ * 2. Policies are sorted by cost once, at construction & evaluation stops at the first rejection, so most detections are
+ * rejected by the cheapest checks.
+ * 3. Immutable & safe to share across threads (as long as the policies are).
+ *
+ * @author Vasanth
+ */
+public class AcceptancePolicyChain {
+
+    private final AcceptancePolicy[] policies;
+
+    /**
+     * Constructor.
+     *
+     * @param policies Policies, in any order.
+     */
+    public AcceptancePolicyChain(@NonNull final AcceptancePolicy... policies) {
+        this.policies = policies.clone();
+        // Stable sort, so policies of same cost keep the given order.
+        Arrays.sort(this.policies, new Comparator<AcceptancePolicy>() {
+            @Override
+            public int compare(AcceptancePolicy lhs, AcceptancePolicy rhs) {
+                return lhs.getCost() < rhs.getCost() ? -1 : (lhs.getCost() == rhs.getCost() ? 0 : 1);
+            }
+        });
+    }
+
+    /**
+     * @return Default chain - Barcode must be fully inside view finder & must cross the laser line.
+     */
+    @NonNull
+    public static AcceptancePolicyChain createDefault() {
+        return new AcceptancePolicyChain(AcceptancePolicies.insideViewFinder(), AcceptancePolicies.onLaserLine());
+    }
+
+    /**
+     * Used to evaluate the candidate.
+     *
+     * @param candidate Detected barcode.
+     * @param context   View finder & other barcode's in the frame.
+     * @return AcceptancePolicy RESULT_ACCEPTED or rejection reason of the first policy which rejected.
+     */
+    public int evaluate(@NonNull final BarcodeCandidate candidate, @NonNull final AcceptanceContext context) {
+        for (AcceptancePolicy policy : policies) {
+            if (!policy.accept(candidate, context)) {
+                return policy.getRejectionReason();
+            }
+        }
+        return AcceptancePolicy.RESULT_ACCEPTED;
+    }
+
+    /**
+     * @param index Index.
+     * @return Policy in evaluation order.
+     */
+    @NonNull
+    public AcceptancePolicy getPolicy(final int index) {
+        return policies[index];
+    }
+
+    public int size() {
+        return policies.length;
+    }
+}
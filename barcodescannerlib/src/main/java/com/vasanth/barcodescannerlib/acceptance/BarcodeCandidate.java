@@ -0,0 +1,61 @@
+package com.vasanth.barcodescannerlib.acceptance;
+
+/**
+ * Barcode Candidate.
+ * <p>
+ * 1. Detected barcode as seen by {@link AcceptancePolicy} - Bounding box in screen space & format.
+ * 2. Mutable & reused across frames, so that acceptance check doesn't allocate per frame.
+ *
+ * @author Vasanth
+ */
+public class BarcodeCandidate {
+
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+    private int format;
+
+    public void set(final int left, final int top, final int right, final int bottom, final int format) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.format = format;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    /**
+     * @return Barcode format (Refer - Barcode#format).
+     */
+    public int getFormat() {
+        return format;
+    }
+
+    public int getCenterX() {
+        return (left + right) / 2;
+    }
+
+    public int getCenterY() {
+        return (top + bottom) / 2;
+    }
+
+    public long getArea() {
+        return (long) Math.max(right - left, 0) * Math.max(bottom - top, 0);
+    }
+}
@@ -0,0 +1,564 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.SurfaceHolder;
+
+import com.google.android.gms.common.images.Size;
+import com.google.android.gms.vision.CameraSource;
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.MultiProcessor;
+import com.google.android.gms.vision.barcode.Barcode;
+import com.google.android.gms.vision.barcode.BarcodeDetector;
+import com.vasanth.barcodescannerlib.diagnostics.ScanDiagnostics;
+import com.vasanth.barcodescannerlib.image.PreprocessingDetector;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Barcode Scanner Controller.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Owns the barcode detector & camera source, so that they can be retained across configuration changes
+ * (Refer - Activity#onRetainCustomNonConfigurationInstance).
+ * 1.b. Creates the detector & camera source on a dedicated camera thread (Refer - {@link #initialize(Context, MultiProcessor.Factory, int)}).
+ * 1.c. Starts / Stops / Releases the camera source on the camera thread, so that UI thread is never blocked.
+ * 1.d. If camera fails to start (Ex - Camera is still held by a phone call), start is retried with exponential backoff.
+ * 1.e. Steps preview resolution & FPS down (and decodes only center region) as per {@link ScanDegradationPolicy} level.
+ * 1.f. Drops to a low detection rate while the scene is still (Refer - {@link MotionGate}). Camera keeps running at normal FPS,
+ * so detection resumes on the very next frame with motion (i.e no camera restart on wake).
+ * 1.g. Camera can run without a preview surface (Refer - {@link #setHeadless(boolean)}).
+ * <p>
+ * 2. Threading.
+ * 2.a. Public methods must be called from UI thread.
+ * 2.b. Camera state is only touched on the camera thread.
+ * 2.c. {@link Callback#onBarcodeDetected(SparseArray, Barcode)} is called on detector thread, all other callbacks are called on UI thread.
+ *
+ * @author Vasanth
+ */
+public class BarcodeScannerController {
+
+    /**
+     * Callback.
+     */
+    public interface Callback {
+
+        /**
+         * Detector & camera source are created, camera will be started once surface is available.
+         */
+        void onCameraSourceReady();
+
+        /**
+         * Detector dependencies are not yet downloaded.
+         *
+         * @param hasLowStorage TRUE if dependencies can't be downloaded due to low storage.
+         */
+        void onDetectorNotOperational(boolean hasLowStorage);
+
+        /**
+         * First preview is reached.
+         */
+        void onCameraStarted();
+
+        void onCameraStartFailed(@NonNull Exception e);
+
+        /**
+         * Scene went still (i.e low detection rate) or motion is detected again.
+         *
+         * @param idle TRUE if scanner is idle.
+         */
+        void onIdleChanged(boolean idle);
+
+        /**
+         * Barcode detected.
+         *
+         * @param frameBarcodes All barcode's detected in the same frame.
+         * @param barcode       Detected barcode.
+         */
+        void onBarcodeDetected(@NonNull SparseArray<Barcode> frameBarcodes, @NonNull Barcode barcode);
+    }
+
+    private static final String TAG = "BS Controller";
+    private static final int MAX_START_RETRY_COUNT = 5;
+    private static final long START_RETRY_BASE_DELAY = 100L;
+    private static final long STOP_WAIT_TIMEOUT = 500L;
+    // Preview Width, Height & FPS indexed by degradation level.
+    private static final int[] PREVIEW_WIDTH = {1600, 1280, 800};
+    private static final int[] PREVIEW_HEIGHT = {1024, 720, 480};
+    private static final float[] PREVIEW_FPS = {15.0f, 10.0f, 7.0f};
+
+    private final Handler mainHandler;
+    private final HandlerThread cameraThread;
+    private final Handler cameraHandler;
+    private final Runnable startRunnable;
+
+    private volatile Callback callback;
+    private volatile Size previewSize;
+    private volatile boolean initialized;
+    private volatile ScanDiagnostics diagnostics;
+    // Written only on camera thread.
+    private volatile int degradationLevel = ScanDegradationPolicy.LEVEL_NORMAL;
+
+    // Accessed only on camera thread.
+    private Context context;
+    private RetainedDetector retainedDetector;
+    private MotionGateDetector detector;
+    private RegionOfInterestDetector roiDetector;
+    private DecodeTimingDetector timingDetector;
+    private CameraSource cameraSource;
+    private SurfaceHolder surfaceHolder;
+    private boolean headless;
+    private boolean startRequested;
+    private boolean started;
+    private int startRetryCount;
+
+    /**
+     * Constructor.
+     * <p>
+     * 1. Starts the camera thread.
+     */
+    public BarcodeScannerController() {
+        mainHandler = new Handler(Looper.getMainLooper());
+        cameraThread = new HandlerThread("CameraThread");
+        cameraThread.start();
+        cameraHandler = new Handler(cameraThread.getLooper());
+        startRunnable = new Runnable() {
+            @Override
+            public void run() {
+                startIfReady();
+            }
+        };
+    }
+
+    // PUBLIC METHODS.
+    public void setCallback(@Nullable final Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Used to create the detector & camera source asynchronously on the camera thread.
+     * <p>
+     * 1. Result is delivered through {@link Callback#onCameraSourceReady()} or {@link Callback#onDetectorNotOperational(boolean)}.
+     *
+     * @param context            Context.
+     * @param trackerFactory     Factory used to create trackers for detected barcode's.
+     * @param preprocessingFlags YuvPreprocessor FLAG_* flags or 0 to disable preprocessing.
+     */
+    public void initialize(@NonNull final Context context, @NonNull final MultiProcessor.Factory<Barcode> trackerFactory,
+                           final int preprocessingFlags) {
+        initialized = true;
+        final Context appContext = context.getApplicationContext();
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                createCameraSource(appContext, trackerFactory, preprocessingFlags);
+            }
+        });
+    }
+
+    /**
+     * Used to set diagnostics which collects decode FPS & latency (Ex - Debug overlay).
+     *
+     * @param diagnostics Diagnostics or NULL to disable.
+     */
+    public void setDiagnostics(@Nullable final ScanDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (timingDetector != null) {
+                    timingDetector.setDiagnostics(diagnostics);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return TRUE if initialization is already requested (Ex - Controller is retained across configuration change).
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Used to set the preview surface.
+     * <p>
+     * 1. When surface is destroyed (i.e NULL), we wait (bounded) for the camera to stop - Surface is destroyed as soon as
+     * SurfaceHolder.Callback#surfaceDestroyed returns & camera must not draw into it after that (Camera#setPreviewDisplay contract).
+     * 1.a. Pending start retries are cancelled & stop is posted at front of the queue, so we only wait behind a start which is
+     * already running (Camera open can't be interrupted), not behind queued work.
+     * 1.b. Wait time is logged, as it is spent on UI thread.
+     *
+     * @param holder Surface holder or NULL if surface is destroyed.
+     */
+    public void setSurface(@Nullable final SurfaceHolder holder) {
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                surfaceHolder = holder;
+                if (holder == null) {
+                    stopCameraSource();
+                } else {
+                    startIfReady();
+                }
+            }
+        };
+        if (holder == null) {
+            cameraHandler.removeCallbacks(startRunnable);
+            long startTime = SystemClock.elapsedRealtime();
+            boolean stopped = runAtFrontAndWait(runnable, STOP_WAIT_TIMEOUT);
+            long waitTime = SystemClock.elapsedRealtime() - startTime;
+            if (stopped) {
+                Log.d(TAG, "Camera stopped for surface destroy in " + waitTime + " ms");
+            } else {
+                Log.w(TAG, "Camera not stopped within " + waitTime + " ms of surface destroy");
+            }
+        } else {
+            cameraHandler.post(runnable);
+        }
+    }
+
+    /**
+     * Used to run the camera without a preview surface (Ex - Scanner service, which has no UI).
+     *
+     * @param headless TRUE to start camera as soon as camera source is ready, without waiting for a surface.
+     */
+    public void setHeadless(final boolean headless) {
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                BarcodeScannerController.this.headless = headless;
+                startIfReady();
+            }
+        });
+    }
+
+    /**
+     * Request camera to start, once camera source & surface are ready.
+     */
+    public void start() {
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                startRequested = true;
+                startRetryCount = 0;
+                startIfReady();
+            }
+        });
+    }
+
+    /**
+     * Restart the camera if it is requested to run (Ex - Display rotation changed), detector is kept.
+     */
+    public void restart() {
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (startRequested) {
+                    stopCameraSource();
+                    previewSize = null;
+                    startRetryCount = 0;
+                    startIfReady();
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop the camera (Ex - Activity paused), detector is kept.
+     */
+    public void stop() {
+        cameraHandler.removeCallbacks(startRunnable);
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                startRequested = false;
+                stopCameraSource();
+            }
+        });
+    }
+
+    /**
+     * Used to apply degradation level (Refer - {@link ScanDegradationPolicy}).
+     * <p>
+     * 1. Preview size can't be changed on a running camera source, so camera source is re-created (detector is kept).
+     *
+     * @param level Degradation level.
+     */
+    public void setDegradationLevel(final int level) {
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                applyDegradationLevel(level);
+            }
+        });
+    }
+
+    /**
+     * Release the camera source & detector and quit the camera thread. Controller can't be used after this.
+     */
+    public void release() {
+        callback = null;
+        initialized = false;
+        cameraHandler.removeCallbacks(startRunnable);
+        cameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                startRequested = false;
+                releaseCameraSource();
+                cameraThread.quit();
+            }
+        });
+    }
+
+    /**
+     * @return Degradation level applied to the camera (Ex - Used to seed a new {@link ScanDegradationMonitor} after activity recreation).
+     */
+    public int getDegradationLevel() {
+        return degradationLevel;
+    }
+
+    /**
+     * @return Camera preview size or NULL if camera is not yet started.
+     */
+    @Nullable
+    public Size getPreviewSize() {
+        return previewSize;
+    }
+
+    /**
+     * Used by barcode trackers to dispatch the detected barcode to current callback.
+     *
+     * @param frameBarcodes All barcode's detected in the same frame.
+     * @param barcode       Detected Barcode.
+     */
+    public void dispatchBarcode(@NonNull final SparseArray<Barcode> frameBarcodes, @NonNull final Barcode barcode) {
+        Callback callback = this.callback;
+        if (callback != null) {
+            callback.onBarcodeDetected(frameBarcodes, barcode);
+        }
+    }
+
+    // PRIVATE METHODS.
+
+    /**
+     * Create detector & camera source.
+     * <p>
+     * 1. Building the detector & checking if it is operational may load native libraries, so we are doing it on camera thread.
+     */
+    private void createCameraSource(@NonNull final Context context, @NonNull final MultiProcessor.Factory<Barcode> trackerFactory,
+                                    final int preprocessingFlags) {
+        // Create barcode detector to track barcode's.
+        BarcodeDetector barcodeDetector = new BarcodeDetector.Builder(context).build();
+
+        // Check if barcode dependencies are available.
+        if (barcodeDetector.isOperational()) {
+            // Detector chain - Retained -> Motion gate -> Decode timing -> Region of interest -> Preprocessing (optional) -> Barcode detector.
+            // Processor is set on the outer most wrapper, as camera source feeds frames to it.
+            releaseCameraSource();
+            this.context = context;
+            Detector<Barcode> innerDetector = barcodeDetector;
+            if (preprocessingFlags != 0) {
+                innerDetector = new PreprocessingDetector(barcodeDetector, preprocessingFlags);
+            }
+            this.roiDetector = new RegionOfInterestDetector(innerDetector);
+            this.roiDetector.setEnabled(degradationLevel >= ScanDegradationPolicy.LEVEL_MINIMAL);
+            this.timingDetector = new DecodeTimingDetector(roiDetector);
+            this.timingDetector.setDiagnostics(diagnostics);
+            this.detector = new MotionGateDetector(timingDetector, new MotionGate.Listener() {
+                @Override
+                public void onIdleChanged(final boolean idle) {
+                    postCallback(new CallbackAction() {
+                        @Override
+                        public void run(@NonNull Callback callback) {
+                            callback.onIdleChanged(idle);
+                        }
+                    });
+                }
+            });
+            this.retainedDetector = new RetainedDetector(detector);
+            this.retainedDetector.setProcessor(
+                    new MultiProcessor.Builder<>(trackerFactory).build());
+            this.cameraSource = buildCameraSource();
+            postCallback(new CallbackAction() {
+                @Override
+                public void run(@NonNull Callback callback) {
+                    callback.onCameraSourceReady();
+                }
+            });
+            startIfReady();
+        } else {
+            // Barcode dependencies are not yet available.
+            // Check for low storage.  If there is low storage, the native library will not be downloaded, so detection will not become operational.
+            barcodeDetector.release();
+            initialized = false;
+            IntentFilter lowStorageFilter = new IntentFilter(Intent.ACTION_DEVICE_STORAGE_LOW);
+            final boolean hasLowStorage = context.registerReceiver(null, lowStorageFilter) != null;
+            postCallback(new CallbackAction() {
+                @Override
+                public void run(@NonNull Callback callback) {
+                    callback.onDetectorNotOperational(hasLowStorage);
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates the camera as per current degradation level.
+     */
+    @NonNull
+    private CameraSource buildCameraSource() {
+        return new CameraSource.Builder(context, retainedDetector)
+                .setFacing(CameraSource.CAMERA_FACING_BACK)
+                .setRequestedPreviewSize(PREVIEW_WIDTH[degradationLevel], PREVIEW_HEIGHT[degradationLevel])
+                .setRequestedFps(PREVIEW_FPS[degradationLevel])
+                .setAutoFocusEnabled(true)
+                .build();
+    }
+
+    private void applyDegradationLevel(final int level) {
+        if (level == degradationLevel || level < 0 || level >= PREVIEW_FPS.length) {
+            return;
+        }
+        degradationLevel = level;
+        if (detector == null || cameraSource == null) {
+            return;
+        }
+        roiDetector.setEnabled(level >= ScanDegradationPolicy.LEVEL_MINIMAL);
+
+        // Releasing the old camera source doesn't release the detector (Refer - RetainedDetector).
+        stopCameraSource();
+        cameraSource.release();
+        previewSize = null;
+        cameraSource = buildCameraSource();
+        startRetryCount = 0;
+        startIfReady();
+    }
+
+    /**
+     * Start Camera source if every thing is ready.
+     * <p>
+     * 1. On failure, camera source is kept & start is retried with exponential backoff.
+     */
+    private void startIfReady() {
+        if (!startRequested || started || (surfaceHolder == null && !headless) || cameraSource == null) {
+            return;
+        }
+        try {
+            detector.reset();
+            if (surfaceHolder != null) {
+                cameraSource.start(surfaceHolder);
+            } else {
+                // Preview frames are still delivered to the detector, just not displayed.
+                cameraSource.start();
+            }
+            started = true;
+            startRetryCount = 0;
+            previewSize = cameraSource.getPreviewSize();
+            postCallback(new CallbackAction() {
+                @Override
+                public void run(@NonNull Callback callback) {
+                    callback.onCameraStarted();
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Unable to start camera source", e);
+            cameraSource.stop();
+            if (startRetryCount < MAX_START_RETRY_COUNT) {
+                long delay = START_RETRY_BASE_DELAY << startRetryCount;
+                startRetryCount++;
+                cameraHandler.postDelayed(startRunnable, delay);
+            } else {
+                startRequested = false;
+                final Exception exception = e;
+                postCallback(new CallbackAction() {
+                    @Override
+                    public void run(@NonNull Callback callback) {
+                        callback.onCameraStartFailed(exception);
+                    }
+                });
+            }
+        }
+    }
+
+    private void stopCameraSource() {
+        cameraHandler.removeCallbacks(startRunnable);
+        if (cameraSource != null && started) {
+            cameraSource.stop();
+        }
+        started = false;
+    }
+
+    private void releaseCameraSource() {
+        stopCameraSource();
+        if (cameraSource != null) {
+            cameraSource.release();
+        }
+        if (retainedDetector != null) {
+            retainedDetector.releaseDetector();
+        }
+        cameraSource = null;
+        retainedDetector = null;
+        detector = null;
+        roiDetector = null;
+        timingDetector = null;
+        context = null;
+        previewSize = null;
+    }
+
+    /**
+     * Used to deliver callback on UI thread, to whichever callback is set at that time.
+     */
+    private void postCallback(@NonNull final CallbackAction action) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Callback callback = BarcodeScannerController.this.callback;
+                if (callback != null) {
+                    action.run(callback);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return TRUE if runnable completed within the timeout.
+     */
+    private boolean runAtFrontAndWait(@NonNull final Runnable runnable, final long timeoutMillis) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        boolean posted = cameraHandler.postAtFrontOfQueue(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runnable.run();
+                } finally {
+                    latch.countDown();
+                }
+            }
+        });
+        if (!posted) {
+            // Camera thread is already quit (i.e released).
+            return true;
+        }
+        try {
+            return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private interface CallbackAction {
+        void run(@NonNull Callback callback);
+    }
+}
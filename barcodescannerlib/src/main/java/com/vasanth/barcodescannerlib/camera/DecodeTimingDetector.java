@@ -0,0 +1,62 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.barcode.Barcode;
+import com.vasanth.barcodescannerlib.diagnostics.ScanDiagnostics;
+
+/**
+ * Decode Timing Detector.
+ * <p>
+ * 1. Wraps the detector & reports decode time of each frame to {@link ScanDiagnostics}.
+ * 2. When diagnostics is not set, frames are passed as it is (i.e no cost when debug overlay is off).
+ *
+ * @author Vasanth
+ */
+public class DecodeTimingDetector extends Detector<Barcode> {
+
+    private final Detector<Barcode> delegate;
+    @Nullable
+    private volatile ScanDiagnostics diagnostics;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate Detector to time.
+     */
+    public DecodeTimingDetector(@NonNull final Detector<Barcode> delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setDiagnostics(@Nullable final ScanDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    // Detector METHODS.
+    @Override
+    public SparseArray<Barcode> detect(Frame frame) {
+        ScanDiagnostics diagnostics = this.diagnostics;
+        if (diagnostics == null) {
+            return delegate.detect(frame);
+        }
+        long startNanos = System.nanoTime();
+        SparseArray<Barcode> barcodes = delegate.detect(frame);
+        diagnostics.onFrameDecoded(startNanos, System.nanoTime());
+        return barcodes;
+    }
+
+    @Override
+    public boolean isOperational() {
+        return delegate.isOperational();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+        super.release();
+    }
+}
@@ -0,0 +1,115 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Motion Gate.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Detects scene change using cheap luminance differencing of a GRID_SIZE x GRID_SIZE sample of the Y plane.
+ * 1.b. When nothing changes for IDLE_TIMEOUT, gate goes idle & allows detection only once every IDLE_DETECTION_INTERVAL.
+ * 1.c. On motion, gate leaves idle immediately & allows detection on every frame.
+ * <p>
+ * 2. Notes.
+ * 2.a. Time is passed in by the caller (Frame timestamp), so it can be tested with synthetic frames.
+ * 2.b. No allocation per frame. Not thread safe, call from detector thread only.
+ *
+ * @author Vasanth
+ */
+public class MotionGate {
+
+    /**
+     * Listener.
+     */
+    public interface Listener {
+        void onIdleChanged(boolean idle);
+    }
+
+    static final int GRID_SIZE = 16;
+    static final int MOTION_THRESHOLD = 8; // Mean absolute luminance difference per sample.
+    static final long IDLE_TIMEOUT = 3000L;
+    static final long IDLE_DETECTION_INTERVAL = 1000L;
+
+    @Nullable
+    private final Listener listener;
+    private final int[] previousSamples = new int[GRID_SIZE * GRID_SIZE];
+    private boolean hasPreviousSamples;
+    private boolean idle;
+    private long lastMotionTime;
+    private long lastDetectionTime;
+
+    /**
+     * Constructor.
+     *
+     * @param listener Listener to get callback when idle state changes.
+     */
+    public MotionGate(@Nullable final Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Used to check if detection should run on the given frame.
+     *
+     * @param luminance Frame data, starting with Y plane (Ex - NV21).
+     * @param width     Frame width.
+     * @param height    Frame height.
+     * @param nowMillis Frame time.
+     * @return TRUE if detection should run.
+     */
+    public boolean shouldDetect(@NonNull final ByteBuffer luminance, final int width, final int height, final long nowMillis) {
+        if (isMotion(luminance, width, height)) {
+            lastMotionTime = nowMillis;
+            setIdle(false);
+        } else if (nowMillis - lastMotionTime >= IDLE_TIMEOUT) {
+            setIdle(true);
+        }
+
+        if (idle && nowMillis - lastDetectionTime < IDLE_DETECTION_INTERVAL) {
+            return false;
+        }
+        lastDetectionTime = nowMillis;
+        return true;
+    }
+
+    public boolean isIdle() {
+        return idle;
+    }
+
+    /**
+     * Used to forget the previous frame (Ex - Camera restarted), so that next frame counts as motion.
+     */
+    public void reset() {
+        hasPreviousSamples = false;
+    }
+
+    // PRIVATE METHODS.
+    private boolean isMotion(@NonNull final ByteBuffer luminance, final int width, final int height) {
+        long totalDifference = 0;
+        int index = 0;
+        for (int gridY = 0; gridY < GRID_SIZE; gridY++) {
+            int rowOffset = ((2 * gridY + 1) * height / (2 * GRID_SIZE)) * width;
+            for (int gridX = 0; gridX < GRID_SIZE; gridX++) {
+                int x = (2 * gridX + 1) * width / (2 * GRID_SIZE);
+                int sample = luminance.get(rowOffset + x) & 0xFF;
+                totalDifference += Math.abs(sample - previousSamples[index]);
+                previousSamples[index] = sample;
+                index++;
+            }
+        }
+        boolean isMotion = !hasPreviousSamples || totalDifference >= (long) MOTION_THRESHOLD * previousSamples.length;
+        hasPreviousSamples = true;
+        return isMotion;
+    }
+
+    private void setIdle(final boolean idle) {
+        if (this.idle != idle) {
+            this.idle = idle;
+            if (listener != null) {
+                listener.onIdleChanged(idle);
+            }
+        }
+    }
+}
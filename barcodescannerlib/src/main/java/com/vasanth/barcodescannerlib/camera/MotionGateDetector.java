@@ -0,0 +1,65 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.barcode.Barcode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Motion Gate Detector.
+ * <p>
+ * 1. Wraps the barcode detector & skips detection on frames rejected by {@link MotionGate}.
+ * 2. Skipped frames return an empty result, so trackers see the barcode as missing.
+ *
+ * @author Vasanth
+ */
+public class MotionGateDetector extends Detector<Barcode> {
+
+    private final Detector<Barcode> delegate;
+    private final MotionGate motionGate;
+    private final SparseArray<Barcode> noBarcodes = new SparseArray<>(0);
+
+    /**
+     * Constructor.
+     *
+     * @param delegate Actual barcode detector.
+     * @param listener Listener to get callback (on detector thread) when idle state changes.
+     */
+    public MotionGateDetector(@NonNull final Detector<Barcode> delegate, @NonNull final MotionGate.Listener listener) {
+        this.delegate = delegate;
+        this.motionGate = new MotionGate(listener);
+    }
+
+    /**
+     * Used to forget the previous frame, call before (re)starting the camera.
+     */
+    public void reset() {
+        motionGate.reset();
+    }
+
+    // Detector METHODS.
+    @Override
+    public SparseArray<Barcode> detect(Frame frame) {
+        ByteBuffer luminance = frame.getGrayscaleImageData();
+        Frame.Metadata metadata = frame.getMetadata();
+        if (luminance != null && !motionGate.shouldDetect(luminance, metadata.getWidth(), metadata.getHeight(), metadata.getTimestampMillis())) {
+            return noBarcodes;
+        }
+        return delegate.detect(frame);
+    }
+
+    @Override
+    public boolean isOperational() {
+        return delegate.isOperational();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+        super.release();
+    }
+}
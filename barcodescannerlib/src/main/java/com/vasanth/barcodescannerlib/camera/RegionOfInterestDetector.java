@@ -0,0 +1,128 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.graphics.ImageFormat;
+import android.graphics.Point;
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.barcode.Barcode;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Region Of Interest Detector.
+ * <p>
+ * 1. Wraps the barcode detector & when enabled, only the center region of the frame is passed to it.
+ * 2. Used to reduce the decoding cost under memory / thermal pressure.
+ * 3. Corner points of detected barcode's are translated back to full frame coordinates.
+ * <p>
+ * 4. Notes.
+ * 4.a. Only NV21 frames are cropped (That's what CameraSource produces), other frames are passed as it is.
+ * 4.b. Crop buffer is reused across frames & is only re-allocated when frame size changes.
+ *
+ * @author Vasanth
+ */
+public class RegionOfInterestDetector extends Detector<Barcode> {
+
+    private static final int ROI_NUMERATOR = 5; // Target 5/8 of each dimension, same as view finder.
+    private static final int ROI_DENOMINATOR = 8;
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    private final Detector<Barcode> delegate;
+    private volatile boolean enabled;
+    private byte[] roiBytes;
+    private ByteBuffer roiBuffer;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate Actual barcode detector.
+     */
+    public RegionOfInterestDetector(@NonNull final Detector<Barcode> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param enabled TRUE to decode only the center region of the frame.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Detector METHODS.
+    @Override
+    public SparseArray<Barcode> detect(Frame frame) {
+        Frame.Metadata metadata = frame.getMetadata();
+        ByteBuffer imageData = frame.getGrayscaleImageData();
+        if (!enabled || imageData == null || metadata.getFormat() != ImageFormat.NV21) {
+            return delegate.detect(frame);
+        }
+
+        // ROI bounds, aligned to even values as NV21 chroma is sub sampled by 2.
+        int width = metadata.getWidth();
+        int height = metadata.getHeight();
+        int roiWidth = (width * ROI_NUMERATOR / ROI_DENOMINATOR) & ~1;
+        int roiHeight = (height * ROI_NUMERATOR / ROI_DENOMINATOR) & ~1;
+        int left = ((width - roiWidth) / 2) & ~1;
+        int top = ((height - roiHeight) / 2) & ~1;
+
+        ensureRoiBuffer(roiWidth, roiHeight);
+
+        // Copy luminance rows only - Detector works on luminance, chroma is kept neutral.
+        for (int row = 0; row < roiHeight; row++) {
+            imageData.position((top + row) * width + left);
+            imageData.get(roiBytes, row * roiWidth, roiWidth);
+        }
+        imageData.rewind();
+
+        Frame roiFrame = new Frame.Builder()
+                .setImageData(roiBuffer, roiWidth, roiHeight, ImageFormat.NV21)
+                .setId(metadata.getId())
+                .setTimestampMillis(metadata.getTimestampMillis())
+                .setRotation(metadata.getRotation())
+                .build();
+        SparseArray<Barcode> barcodes = delegate.detect(roiFrame);
+
+        // Detected coordinates are in rotated frame space, ROI is centered so only X & Y offsets swap for 90 & 270.
+        boolean isSwapped = metadata.getRotation() == Frame.ROTATION_90 || metadata.getRotation() == Frame.ROTATION_270;
+        int offsetX = isSwapped ? top : left;
+        int offsetY = isSwapped ? left : top;
+        for (int i = 0; i < barcodes.size(); i++) {
+            Point[] cornerPoints = barcodes.valueAt(i).cornerPoints;
+            if (cornerPoints != null) {
+                for (Point point : cornerPoints) {
+                    point.offset(offsetX, offsetY);
+                }
+            }
+        }
+        return barcodes;
+    }
+
+    @Override
+    public boolean isOperational() {
+        return delegate.isOperational();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+        super.release();
+    }
+
+    // PRIVATE METHODS.
+    private void ensureRoiBuffer(final int roiWidth, final int roiHeight) {
+        int size = roiWidth * roiHeight * 3 / 2;
+        if (roiBytes == null || roiBytes.length != size) {
+            roiBytes = new byte[size];
+            Arrays.fill(roiBytes, roiWidth * roiHeight, size, NEUTRAL_CHROMA);
+            roiBuffer = ByteBuffer.wrap(roiBytes);
+        }
+    }
+}
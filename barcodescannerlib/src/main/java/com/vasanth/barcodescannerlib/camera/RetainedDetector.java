@@ -0,0 +1,58 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.barcode.Barcode;
+
+/**
+ * Retained Detector.
+ * <p>
+ * 1. Outer most wrapper of the detector chain, given to camera source.
+ * 2. CameraSource#release() releases its detector, so {@link #release()} is ignored here - This lets us release old camera
+ * sources (Ex - Rebuilt for a new preview size) & keep the detector.
+ * 3. Detector is released only by {@link #releaseDetector()}.
+ *
+ * @author Vasanth
+ */
+public class RetainedDetector extends Detector<Barcode> {
+
+    private final Detector<Barcode> delegate;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate Detector chain to retain.
+     */
+    public RetainedDetector(@NonNull final Detector<Barcode> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Used to release the detector chain & processor.
+     */
+    public void releaseDetector() {
+        delegate.release();
+        super.release();
+    }
+
+    // Detector METHODS.
+    @Override
+    public SparseArray<Barcode> detect(Frame frame) {
+        return delegate.detect(frame);
+    }
+
+    @Override
+    public boolean isOperational() {
+        return delegate.isOperational();
+    }
+
+    /**
+     * Ignored, as it is called by the camera source (Refer - {@link #releaseDetector()}).
+     */
+    @Override
+    public void release() {
+    }
+}
@@ -0,0 +1,119 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+/**
+ * Scan Degradation Monitor.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Feeds memory pressure & battery temperature (as thermal signal) to {@link ScanDegradationPolicy}.
+ * 1.b. Applies the resulting degradation level to {@link BarcodeScannerController}.
+ * <p>
+ * 2. Usage.
+ * 2.a. Call {@link #start()} from onResume, {@link #stop()} from onPause & forward onTrimMemory.
+ * 2.b. Must be used from UI thread.
+ *
+ * @author Vasanth
+ */
+public class ScanDegradationMonitor implements ScanDegradationPolicy.Listener {
+
+    private static final long TICK_INTERVAL = 5000L;
+
+    private final Context context;
+    private final BarcodeScannerController scannerController;
+    private final ScanDegradationPolicy policy;
+    private final Handler handler;
+    private final BroadcastReceiver batteryReceiver;
+    private final Runnable tickRunnable;
+    private boolean started;
+
+    /**
+     * Constructor.
+     *
+     * @param context           Context.
+     * @param scannerController Controller to which degradation level is applied.
+     */
+    public ScanDegradationMonitor(@NonNull final Context context, @NonNull final BarcodeScannerController scannerController) {
+        this.context = context.getApplicationContext();
+        this.scannerController = scannerController;
+        this.policy = new ScanDegradationPolicy(this);
+        // Controller may still be degraded by the previous monitor (i.e previous activity instance).
+        this.policy.restoreLevel(scannerController.getDegradationLevel(), SystemClock.elapsedRealtime());
+        this.handler = new Handler(Looper.getMainLooper());
+        this.batteryReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                onBatteryChanged(intent);
+            }
+        };
+        this.tickRunnable = new Runnable() {
+            @Override
+            public void run() {
+                policy.onTick(SystemClock.elapsedRealtime());
+                scheduleTickIfDegraded();
+            }
+        };
+    }
+
+    // ScanDegradationPolicy.Listener METHODS.
+    @Override
+    public void onDegradationLevelChanged(int level) {
+        scannerController.setDegradationLevel(level);
+        scheduleTickIfDegraded();
+    }
+
+    // PUBLIC METHODS.
+    public void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        // Battery changed is sticky, so we get the current temperature immediately.
+        Intent batteryStatus = context.registerReceiver(batteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (batteryStatus != null) {
+            onBatteryChanged(batteryStatus);
+        }
+        scheduleTickIfDegraded();
+    }
+
+    public void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        context.unregisterReceiver(batteryReceiver);
+        handler.removeCallbacks(tickRunnable);
+    }
+
+    /**
+     * Forward of ComponentCallbacks2#onTrimMemory.
+     *
+     * @param trimLevel Trim level.
+     */
+    public void onTrimMemory(final int trimLevel) {
+        policy.onTrimMemory(trimLevel, SystemClock.elapsedRealtime());
+    }
+
+    // PRIVATE METHODS.
+    private void onBatteryChanged(@NonNull final Intent intent) {
+        int temperature = intent.getIntExtra(BatteryManager.EXTRA_TEMPERATURE, Integer.MIN_VALUE);
+        if (temperature != Integer.MIN_VALUE) {
+            policy.onTemperatureChanged(temperature, SystemClock.elapsedRealtime());
+        }
+    }
+
+    private void scheduleTickIfDegraded() {
+        handler.removeCallbacks(tickRunnable);
+        if (started && policy.getLevel() != ScanDegradationPolicy.LEVEL_NORMAL) {
+            handler.postDelayed(tickRunnable, TICK_INTERVAL);
+        }
+    }
+}
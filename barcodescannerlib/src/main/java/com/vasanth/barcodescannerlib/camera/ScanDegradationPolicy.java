@@ -0,0 +1,160 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.content.ComponentCallbacks2;
+import android.support.annotation.Nullable;
+
+/**
+ * Scan Degradation Policy.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Decides how much the scanner should degrade, depending on memory pressure (onTrimMemory) & device temperature.
+ * 1.b. Degradation level is the worse of memory level & thermal level.
+ * <p>
+ * 2. Levels.
+ * 2.a. LEVEL_NORMAL - Full preview resolution & FPS.
+ * 2.b. LEVEL_REDUCED - Lower preview resolution & FPS (i.e smaller preview buffers).
+ * 2.c. LEVEL_MINIMAL - Lowest preview resolution & FPS and only the center region of frame is decoded.
+ * <p>
+ * 3. Recovery.
+ * 3.a. Memory level steps down by one, once no trim event is received for MEMORY_RECOVERY_WINDOW.
+ * 3.b. Thermal level steps down once temperature goes below threshold by THERMAL_HYSTERESIS.
+ * <p>
+ * 4. Notes.
+ * 4.a. Policy is pure logic, time is passed in by the caller, so it can be tested with synthetic events.
+ * 4.b. Not thread safe, call from a single thread.
+ *
+ * @author Vasanth
+ */
+public class ScanDegradationPolicy {
+
+    /**
+     * Listener.
+     */
+    public interface Listener {
+        void onDegradationLevelChanged(int level);
+    }
+
+    public static final int LEVEL_NORMAL = 0;
+    public static final int LEVEL_REDUCED = 1;
+    public static final int LEVEL_MINIMAL = 2;
+
+    static final long MEMORY_RECOVERY_WINDOW = 30000L;
+    // Temperature in tenths of a degree Celsius (Same unit as BatteryManager#EXTRA_TEMPERATURE).
+    static final int TEMPERATURE_REDUCED = 430;
+    static final int TEMPERATURE_MINIMAL = 460;
+    static final int THERMAL_HYSTERESIS = 20;
+
+    @Nullable
+    private final Listener listener;
+    private int memoryLevel = LEVEL_NORMAL;
+    private int thermalLevel = LEVEL_NORMAL;
+    private int level = LEVEL_NORMAL;
+    private long lastMemoryPressureTime;
+
+    /**
+     * Constructor.
+     *
+     * @param listener Listener to get callback when degradation level changes.
+     */
+    public ScanDegradationPolicy(@Nullable final Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Used to continue from the level already applied (Ex - Controller retained across activity recreation), without callback.
+     * <p>
+     * 1. Restored level is treated as memory pressure seen now, so it steps down through the usual recovery window
+     * (Thermal level is re-evaluated from next temperature).
+     *
+     * @param level     Level already applied.
+     * @param nowMillis Current time.
+     */
+    public void restoreLevel(final int level, final long nowMillis) {
+        if (level <= LEVEL_NORMAL) {
+            return;
+        }
+        memoryLevel = Math.min(level, LEVEL_MINIMAL);
+        lastMemoryPressureTime = nowMillis;
+        this.level = Math.max(memoryLevel, thermalLevel);
+    }
+
+    /**
+     * Used to feed memory pressure event.
+     * <p>
+     * 1. Levels from TRIM_MEMORY_UI_HIDDEN & above are ignored, as camera is already stopped when UI is hidden.
+     *
+     * @param trimLevel Trim level (Refer - ComponentCallbacks2#onTrimMemory).
+     * @param nowMillis Current time.
+     */
+    public void onTrimMemory(final int trimLevel, final long nowMillis) {
+        int newMemoryLevel;
+        if (trimLevel >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            return;
+        } else if (trimLevel >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            newMemoryLevel = LEVEL_MINIMAL;
+        } else if (trimLevel >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            newMemoryLevel = LEVEL_REDUCED;
+        } else {
+            return;
+        }
+        lastMemoryPressureTime = nowMillis;
+        memoryLevel = Math.max(memoryLevel, newMemoryLevel);
+        updateLevel();
+    }
+
+    /**
+     * Used to feed device temperature.
+     *
+     * @param temperature Temperature in tenths of a degree Celsius.
+     * @param nowMillis   Current time.
+     */
+    public void onTemperatureChanged(final int temperature, final long nowMillis) {
+        int newThermalLevel = thermalLevel;
+        // Step up immediately.
+        if (temperature >= TEMPERATURE_MINIMAL) {
+            newThermalLevel = LEVEL_MINIMAL;
+        } else if (temperature >= TEMPERATURE_REDUCED) {
+            newThermalLevel = Math.max(newThermalLevel, LEVEL_REDUCED);
+        }
+        // Step down only once cooled down below threshold by hysteresis.
+        if (newThermalLevel == LEVEL_MINIMAL && temperature < TEMPERATURE_MINIMAL - THERMAL_HYSTERESIS) {
+            newThermalLevel = LEVEL_REDUCED;
+        }
+        if (newThermalLevel == LEVEL_REDUCED && temperature < TEMPERATURE_REDUCED - THERMAL_HYSTERESIS) {
+            newThermalLevel = LEVEL_NORMAL;
+        }
+        thermalLevel = newThermalLevel;
+        updateLevel();
+    }
+
+    /**
+     * Used to re-evaluate time based recovery, call periodically while degraded.
+     *
+     * @param nowMillis Current time.
+     */
+    public void onTick(final long nowMillis) {
+        if (memoryLevel > LEVEL_NORMAL && nowMillis - lastMemoryPressureTime >= MEMORY_RECOVERY_WINDOW) {
+            memoryLevel--;
+            lastMemoryPressureTime = nowMillis;
+            updateLevel();
+        }
+    }
+
+    /**
+     * @return Current degradation level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    // PRIVATE METHODS.
+    private void updateLevel() {
+        int newLevel = Math.max(memoryLevel, thermalLevel);
+        if (newLevel != level) {
+            level = newLevel;
+            if (listener != null) {
+                listener.onDegradationLevelChanged(newLevel);
+            }
+        }
+    }
+}
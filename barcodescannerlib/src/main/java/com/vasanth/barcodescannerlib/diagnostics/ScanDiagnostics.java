@@ -0,0 +1,191 @@
+package com.vasanth.barcodescannerlib.diagnostics;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Scan Diagnostics.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Collects data used to tune the view finder - Recently rejected barcode's (with reason), heatmap of detected
+ * barcode centers & decode FPS / latency.
+ * 1.b. Written from detector thread & read from UI thread (Refer - BarcodeScannerOverlayView).
+ * <p>
+ * 2. Notes.
+ * 2.a. All storage is preallocated & readers copy into caller owned arrays, so collecting & drawing doesn't allocate per frame.
+ * 2.b. Coordinates are in screen space.
+ * 2.c. Heatmap counts are halved every HEATMAP_DECAY_TIME, so it shows where barcode's are seen now & older detections fade out.
+ *
+ * @author Vasanth
+ */
+public class ScanDiagnostics {
+
+    public static final int MAX_REJECTIONS = 8;
+    public static final int HEATMAP_COLUMNS = 16;
+    public static final int HEATMAP_ROWS = 9;
+
+    static final long REJECTION_DISPLAY_TIME = 1000L;
+    static final long HEATMAP_DECAY_TIME = 5000L;
+    private static final double SMOOTHING = 0.1; // Weight of the new sample in moving averages.
+
+    // Rejections ring buffer - left, top, right, bottom per entry.
+    private final int[] rejectionRects = new int[MAX_REJECTIONS * 4];
+    private final int[] rejectionReasons = new int[MAX_REJECTIONS];
+    private final long[] rejectionTimes = new long[MAX_REJECTIONS];
+    private int nextRejection;
+
+    private final int[] heatmap = new int[HEATMAP_COLUMNS * HEATMAP_ROWS];
+    private int heatmapMax;
+    private long lastHeatmapDecayTime;
+
+    private long lastDecodeStartNanos;
+    private double averageFrameIntervalNanos;
+    private double averageLatencyNanos;
+
+    /**
+     * Called once detector finishes a frame.
+     *
+     * @param startNanos Decode start time (System#nanoTime).
+     * @param endNanos   Decode end time (System#nanoTime).
+     */
+    public synchronized void onFrameDecoded(final long startNanos, final long endNanos) {
+        long latency = endNanos - startNanos;
+        averageLatencyNanos = averageLatencyNanos == 0 ? latency : average(averageLatencyNanos, latency);
+        if (lastDecodeStartNanos != 0) {
+            long interval = startNanos - lastDecodeStartNanos;
+            averageFrameIntervalNanos = averageFrameIntervalNanos == 0 ? interval : average(averageFrameIntervalNanos, interval);
+        }
+        lastDecodeStartNanos = startNanos;
+    }
+
+    /**
+     * Called once detected barcode is checked against view finder.
+     *
+     * @param left         Barcode left.
+     * @param top          Barcode top.
+     * @param right        Barcode right.
+     * @param bottom       Barcode bottom.
+     * @param isAccepted   TRUE if barcode is accepted.
+     * @param reason       Reason (Ex - AcceptancePolicy REASON_*), used only if rejected.
+     * @param screenWidth  Screen width, used to map barcode center to heatmap cell.
+     * @param screenHeight Screen height, used to map barcode center to heatmap cell.
+     * @param nowMillis    Current time.
+     */
+    public synchronized void onBarcodeChecked(final int left, final int top, final int right, final int bottom,
+                                              final boolean isAccepted, final int reason,
+                                              final int screenWidth, final int screenHeight, final long nowMillis) {
+        // Heatmap of all detections.
+        if (screenWidth > 0 && screenHeight > 0) {
+            decayHeatmap(nowMillis);
+            int column = clamp(((left + right) / 2) * HEATMAP_COLUMNS / screenWidth, HEATMAP_COLUMNS);
+            int row = clamp(((top + bottom) / 2) * HEATMAP_ROWS / screenHeight, HEATMAP_ROWS);
+            int count = ++heatmap[row * HEATMAP_COLUMNS + column];
+            if (count > heatmapMax) {
+                heatmapMax = count;
+            }
+        }
+
+        if (!isAccepted) {
+            int index = nextRejection;
+            rejectionRects[index * 4] = left;
+            rejectionRects[index * 4 + 1] = top;
+            rejectionRects[index * 4 + 2] = right;
+            rejectionRects[index * 4 + 3] = bottom;
+            rejectionReasons[index] = reason;
+            rejectionTimes[index] = nowMillis;
+            nextRejection = (index + 1) % MAX_REJECTIONS;
+        }
+    }
+
+    /**
+     * Used to copy rejections of last REJECTION_DISPLAY_TIME.
+     *
+     * @param rects     Destination for rectangles, at least MAX_REJECTIONS * 4 long.
+     * @param reasons   Destination for reasons, at least MAX_REJECTIONS long.
+     * @param nowMillis Current time.
+     * @return Number of rejections copied.
+     */
+    public synchronized int copyRecentRejections(@NonNull final int[] rects, @NonNull final int[] reasons, final long nowMillis) {
+        int count = 0;
+        for (int i = 0; i < MAX_REJECTIONS; i++) {
+            long time = rejectionTimes[i];
+            if (time != 0 && nowMillis - time <= REJECTION_DISPLAY_TIME) {
+                System.arraycopy(rejectionRects, i * 4, rects, count * 4, 4);
+                reasons[count] = rejectionReasons[i];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Used to copy heatmap (row major, HEATMAP_COLUMNS x HEATMAP_ROWS).
+     *
+     * @param destination Destination, at least HEATMAP_COLUMNS * HEATMAP_ROWS long.
+     * @param nowMillis   Current time, used to decay counts while nothing is detected.
+     * @return Highest count in heatmap.
+     */
+    public synchronized int copyHeatmap(@NonNull final int[] destination, final long nowMillis) {
+        decayHeatmap(nowMillis);
+        System.arraycopy(heatmap, 0, destination, 0, heatmap.length);
+        return heatmapMax;
+    }
+
+    /**
+     * @return Decoded frames per second (Moving average).
+     */
+    public synchronized float getDecodeFps() {
+        return averageFrameIntervalNanos == 0 ? 0f : (float) (1000000000.0 / averageFrameIntervalNanos);
+    }
+
+    /**
+     * @return Decode latency in milli seconds (Moving average).
+     */
+    public synchronized float getDecodeLatencyMillis() {
+        return (float) (averageLatencyNanos / 1000000.0);
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(rejectionTimes, 0L);
+        Arrays.fill(heatmap, 0);
+        heatmapMax = 0;
+        lastHeatmapDecayTime = 0;
+        nextRejection = 0;
+        lastDecodeStartNanos = 0;
+        averageFrameIntervalNanos = 0;
+        averageLatencyNanos = 0;
+    }
+
+    // PRIVATE METHODS.
+
+    /**
+     * Used to halve heatmap counts once per elapsed HEATMAP_DECAY_TIME.
+     */
+    private void decayHeatmap(final long nowMillis) {
+        if (heatmapMax == 0) {
+            // Nothing to decay, so next period starts from now.
+            lastHeatmapDecayTime = nowMillis;
+            return;
+        }
+        long periods = (nowMillis - lastHeatmapDecayTime) / HEATMAP_DECAY_TIME;
+        if (periods <= 0) {
+            return;
+        }
+        int shift = (int) Math.min(periods, 31);
+        for (int i = 0; i < heatmap.length; i++) {
+            heatmap[i] >>= shift;
+        }
+        // Halving keeps the order of counts, so max halves too.
+        heatmapMax >>= shift;
+        lastHeatmapDecayTime += periods * HEATMAP_DECAY_TIME;
+    }
+
+    private static double average(final double average, final long sample) {
+        return average + SMOOTHING * (sample - average);
+    }
+
+    private static int clamp(final int index, final int size) {
+        return index < 0 ? 0 : (index >= size ? size - 1 : index);
+    }
+}
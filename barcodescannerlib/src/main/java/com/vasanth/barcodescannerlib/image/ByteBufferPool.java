@@ -0,0 +1,74 @@
+package com.vasanth.barcodescannerlib.image;
+
+import android.support.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Byte Buffer Pool.
+ * <p>
+ * 1. Pool of heap (array backed) byte buffers of one size, used to avoid allocation per frame.
+ * 2. If frame size changes, pool is cleared & buffers of new size are allocated.
+ * 3. Not thread safe, use from detector thread only.
+ *
+ * @author Vasanth
+ */
+public class ByteBufferPool {
+
+    private final int maxPooledBuffers;
+    private final ArrayDeque<ByteBuffer> buffers;
+    private int bufferSize;
+
+    /**
+     * Constructor.
+     *
+     * @param maxPooledBuffers Maximum number of free buffers kept in pool.
+     */
+    public ByteBufferPool(final int maxPooledBuffers) {
+        this.maxPooledBuffers = maxPooledBuffers;
+        this.buffers = new ArrayDeque<>(maxPooledBuffers);
+    }
+
+    /**
+     * Used to get buffer of the given size, from pool if available.
+     *
+     * @param size Buffer size.
+     * @return Array backed buffer, with position 0 & limit equal to size.
+     */
+    @NonNull
+    public ByteBuffer acquire(final int size) {
+        if (size != bufferSize) {
+            buffers.clear();
+            bufferSize = size;
+        }
+        ByteBuffer buffer = buffers.pollFirst();
+        if (buffer == null) {
+            buffer = ByteBuffer.wrap(new byte[size]);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Used to return the buffer to pool.
+     *
+     * @param buffer Buffer acquired from this pool.
+     */
+    public void release(@NonNull final ByteBuffer buffer) {
+        if (buffer.capacity() == bufferSize && buffers.size() < maxPooledBuffers) {
+            buffers.addFirst(buffer);
+        }
+    }
+
+    /**
+     * @return Number of free buffers in pool.
+     */
+    public int size() {
+        return buffers.size();
+    }
+
+    public void clear() {
+        buffers.clear();
+    }
+}
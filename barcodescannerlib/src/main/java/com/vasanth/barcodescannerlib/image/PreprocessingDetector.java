@@ -0,0 +1,166 @@
+package com.vasanth.barcodescannerlib.image;
+
+import android.graphics.ImageFormat;
+import android.graphics.Point;
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.barcode.Barcode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Preprocessing Detector.
+ * <p>
+ * 1. Wraps the barcode detector & runs {@link YuvPreprocessor} on NV21 frames before detection.
+ * 2. Preprocessing is selected using YuvPreprocessor FLAG_* flags, which can be combined. Steps run in order - Contrast stretch,
+ * adaptive threshold (on the stretched frame), rotate.
+ * 3. If frame is rotated, corner points of detected barcode's are rotated back to original frame coordinates.
+ * 4. Intermediate frames come from {@link ByteBufferPool}, so no pixel buffer is allocated per frame.
+ * At most two are held at a time, as stretched frame is released once it is thresholded.
+ *
+ * @author Vasanth
+ */
+public class PreprocessingDetector extends Detector<Barcode> {
+
+    private static final int MAX_POOLED_BUFFERS = 2;
+
+    private final Detector<Barcode> delegate;
+    private final int flags;
+    private final YuvPreprocessor preprocessor;
+    private final ByteBufferPool bufferPool;
+    private byte[] inputCopy;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate Actual barcode detector.
+     * @param flags    YuvPreprocessor FLAG_* flags.
+     */
+    public PreprocessingDetector(@NonNull final Detector<Barcode> delegate, final int flags) {
+        this.delegate = delegate;
+        this.flags = flags;
+        this.preprocessor = new YuvPreprocessor();
+        this.bufferPool = new ByteBufferPool(MAX_POOLED_BUFFERS);
+    }
+
+    // Detector METHODS.
+    @Override
+    public SparseArray<Barcode> detect(Frame frame) {
+        Frame.Metadata metadata = frame.getMetadata();
+        ByteBuffer imageData = frame.getGrayscaleImageData();
+        int width = metadata.getWidth();
+        int height = metadata.getHeight();
+        int size = YuvPreprocessor.getNv21Size(width, height);
+        boolean isRotate = (flags & YuvPreprocessor.FLAG_ROTATE_90) != 0 && width % 2 == 0 && height % 2 == 0;
+        boolean isFilter = (flags & (YuvPreprocessor.FLAG_CONTRAST_STRETCH | YuvPreprocessor.FLAG_ADAPTIVE_THRESHOLD)) != 0;
+        if ((!isRotate && !isFilter) || imageData == null || metadata.getFormat() != ImageFormat.NV21 || imageData.capacity() < size) {
+            return delegate.detect(frame);
+        }
+
+        byte[] input = toArray(imageData, size);
+        ByteBuffer filtered = null;
+        ByteBuffer rotated = null;
+        try {
+            byte[] current = input;
+            if ((flags & YuvPreprocessor.FLAG_CONTRAST_STRETCH) != 0) {
+                filtered = bufferPool.acquire(size);
+                preprocessor.stretchContrast(current, filtered.array(), width, height);
+                current = filtered.array();
+            }
+            if ((flags & YuvPreprocessor.FLAG_ADAPTIVE_THRESHOLD) != 0) {
+                // Threshold can't run in place.
+                ByteBuffer thresholded = bufferPool.acquire(size);
+                preprocessor.adaptiveThreshold(current, thresholded.array(), width, height);
+                if (filtered != null) {
+                    bufferPool.release(filtered);
+                }
+                filtered = thresholded;
+                current = filtered.array();
+            }
+
+            int outputWidth = width;
+            int outputHeight = height;
+            ByteBuffer output = filtered;
+            if (isRotate) {
+                rotated = bufferPool.acquire(size);
+                preprocessor.rotate90(current, rotated.array(), width, height);
+                output = rotated;
+                outputWidth = height;
+                outputHeight = width;
+            }
+
+            Frame processedFrame = new Frame.Builder()
+                    .setImageData(output, outputWidth, outputHeight, ImageFormat.NV21)
+                    .setId(metadata.getId())
+                    .setTimestampMillis(metadata.getTimestampMillis())
+                    .setRotation(metadata.getRotation())
+                    .build();
+            SparseArray<Barcode> barcodes = delegate.detect(processedFrame);
+            if (isRotate) {
+                rotateCornerPointsBack(barcodes, metadata);
+            }
+            return barcodes;
+        } finally {
+            if (filtered != null) {
+                bufferPool.release(filtered);
+            }
+            if (rotated != null) {
+                bufferPool.release(rotated);
+            }
+        }
+    }
+
+    @Override
+    public boolean isOperational() {
+        return delegate.isOperational();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+        bufferPool.clear();
+        super.release();
+    }
+
+    // PRIVATE METHODS.
+
+    /**
+     * Used to get frame data as array, copied into a reused array only if buffer is not array backed.
+     */
+    @NonNull
+    private byte[] toArray(@NonNull final ByteBuffer imageData, final int size) {
+        if (imageData.hasArray() && imageData.arrayOffset() == 0) {
+            return imageData.array();
+        }
+        if (inputCopy == null || inputCopy.length != size) {
+            inputCopy = new byte[size];
+        }
+        imageData.rewind();
+        imageData.get(inputCopy, 0, size);
+        imageData.rewind();
+        return inputCopy;
+    }
+
+    /**
+     * Used to map corner points back to original frame coordinates.
+     * <p>
+     * 1. Detections are reported in upright space (i.e after metadata rotation is applied).
+     * 2. Rotations commute, so upright space of rotated frame is upright space of original frame, rotated 90 degree clockwise.
+     * 3. Hence inverse of (x, y) -> (uprightHeight - 1 - y, x) is applied.
+     */
+    private static void rotateCornerPointsBack(@NonNull final SparseArray<Barcode> barcodes, @NonNull final Frame.Metadata metadata) {
+        boolean isSwapped = metadata.getRotation() == Frame.ROTATION_90 || metadata.getRotation() == Frame.ROTATION_270;
+        int uprightHeight = isSwapped ? metadata.getWidth() : metadata.getHeight();
+        for (int i = 0; i < barcodes.size(); i++) {
+            Point[] cornerPoints = barcodes.valueAt(i).cornerPoints;
+            if (cornerPoints != null) {
+                for (Point point : cornerPoints) {
+                    point.set(point.y, uprightHeight - 1 - point.x);
+                }
+            }
+        }
+    }
+}
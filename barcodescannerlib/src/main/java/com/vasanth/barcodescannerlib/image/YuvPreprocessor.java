@@ -0,0 +1,210 @@
+package com.vasanth.barcodescannerlib.image;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * YUV Preprocessor.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Cheap image enhancement of NV21 frames before barcode detection (Ex - Poor lighting).
+ * 1.b. Luminance extraction, contrast stretching, adaptive thresholding & 90 degree rotation.
+ * <p>
+ * 2. Notes.
+ * 2.a. All methods work on caller supplied arrays & reuse internal scratch buffers, so steady state is allocation free.
+ * 2.b. Inner loops are plain sequential array loops, so that JIT / ART can unroll & vectorize them.
+ * 2.c. Filters write only the Y plane of destination, chroma is set to neutral gray (Detector works on luminance).
+ * 2.d. Not thread safe, use one instance per thread.
+ *
+ * @author Vasanth
+ */
+public class YuvPreprocessor {
+
+    // Preprocessing flags, can be combined & are applied in this order (Refer - PreprocessingDetector).
+    public static final int FLAG_CONTRAST_STRETCH = 1;
+    public static final int FLAG_ADAPTIVE_THRESHOLD = 1 << 1; // Runs on the stretched frame, if combined with FLAG_CONTRAST_STRETCH.
+    public static final int FLAG_ROTATE_90 = 1 << 2;
+
+    static final int CONTRAST_CLIP_PERCENT = 1;
+    static final int THRESHOLD_RADIUS = 12;
+    static final int THRESHOLD_OFFSET = 6;
+
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    private final int[] histogram = new int[256];
+    private final byte[] lookupTable = new byte[256];
+    private int[] integralImage = new int[0];
+
+    /**
+     * @param width  Frame width.
+     * @param height Frame height.
+     * @return NV21 buffer size for the given frame.
+     */
+    public static int getNv21Size(final int width, final int height) {
+        return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+    }
+
+    /**
+     * Used to copy the luminance (Y plane) of NV21 frame.
+     *
+     * @param nv21      Source NV21 frame.
+     * @param luminance Destination, at least width * height long.
+     * @param width     Frame width.
+     * @param height    Frame height.
+     */
+    public void extractLuminance(@NonNull final byte[] nv21, @NonNull final byte[] luminance, final int width, final int height) {
+        System.arraycopy(nv21, 0, luminance, 0, width * height);
+    }
+
+    /**
+     * Used to stretch the luminance histogram to full range.
+     * <p>
+     * 1. Darkest & brightest CONTRAST_CLIP_PERCENT of pixels are clipped, so that few outliers don't defeat the stretch.
+     *
+     * @param src    Source NV21 frame.
+     * @param dst    Destination NV21 frame (May be same as source).
+     * @param width  Frame width.
+     * @param height Frame height.
+     */
+    public void stretchContrast(@NonNull final byte[] src, @NonNull final byte[] dst, final int width, final int height) {
+        int pixelCount = width * height;
+
+        // 1. Histogram.
+        Arrays.fill(histogram, 0);
+        for (int i = 0; i < pixelCount; i++) {
+            histogram[src[i] & 0xFF]++;
+        }
+
+        // 2. Clipped min & max.
+        int clipCount = pixelCount * CONTRAST_CLIP_PERCENT / 100;
+        int low = 0;
+        for (int sum = 0; low < 255; low++) {
+            sum += histogram[low];
+            if (sum > clipCount) {
+                break;
+            }
+        }
+        int high = 255;
+        for (int sum = 0; high > 0; high--) {
+            sum += histogram[high];
+            if (sum > clipCount) {
+                break;
+            }
+        }
+
+        // 3. Lookup table & apply.
+        if (high <= low) {
+            if (src != dst) {
+                System.arraycopy(src, 0, dst, 0, pixelCount);
+            }
+        } else {
+            int range = high - low;
+            for (int value = 0; value < 256; value++) {
+                int stretched = (value - low) * 255 / range;
+                lookupTable[value] = (byte) (stretched < 0 ? 0 : (stretched > 255 ? 255 : stretched));
+            }
+            for (int i = 0; i < pixelCount; i++) {
+                dst[i] = lookupTable[src[i] & 0xFF];
+            }
+        }
+        fillNeutralChroma(dst, width, height);
+    }
+
+    /**
+     * Used to binarize the luminance using local mean threshold.
+     * <p>
+     * 1. Pixel is black if it is darker than mean of its (2 * THRESHOLD_RADIUS + 1) square neighbourhood by THRESHOLD_OFFSET.
+     * 2. Mean is computed using integral image, so cost is constant per pixel irrespective of radius.
+     *
+     * @param src    Source NV21 frame.
+     * @param dst    Destination NV21 frame (Must not be same as source).
+     * @param width  Frame width.
+     * @param height Frame height.
+     */
+    public void adaptiveThreshold(@NonNull final byte[] src, @NonNull final byte[] dst, final int width, final int height) {
+        int stride = width + 1;
+        int integralSize = stride * (height + 1);
+        if (integralImage.length < integralSize) {
+            integralImage = new int[integralSize];
+        }
+        int[] integral = integralImage;
+
+        // 1. Integral image, first row & column are zero.
+        Arrays.fill(integral, 0, stride, 0);
+        for (int y = 0; y < height; y++) {
+            int rowSum = 0;
+            int srcRow = y * width;
+            int integralRow = (y + 1) * stride;
+            integral[integralRow] = 0;
+            for (int x = 0; x < width; x++) {
+                rowSum += src[srcRow + x] & 0xFF;
+                integral[integralRow + x + 1] = integral[integralRow - stride + x + 1] + rowSum;
+            }
+        }
+
+        // 2. Threshold.
+        for (int y = 0; y < height; y++) {
+            int top = Math.max(y - THRESHOLD_RADIUS, 0);
+            int bottom = Math.min(y + THRESHOLD_RADIUS + 1, height);
+            int topRow = top * stride;
+            int bottomRow = bottom * stride;
+            int rowHeight = bottom - top;
+            int srcRow = y * width;
+            for (int x = 0; x < width; x++) {
+                int left = Math.max(x - THRESHOLD_RADIUS, 0);
+                int right = Math.min(x + THRESHOLD_RADIUS + 1, width);
+                int sum = integral[bottomRow + right] - integral[bottomRow + left] - integral[topRow + right] + integral[topRow + left];
+                int count = rowHeight * (right - left);
+                int value = src[srcRow + x] & 0xFF;
+                dst[srcRow + x] = (value + THRESHOLD_OFFSET) * count < sum ? 0 : (byte) 255;
+            }
+        }
+        fillNeutralChroma(dst, width, height);
+    }
+
+    /**
+     * Used to rotate NV21 frame by 90 degree clockwise.
+     * <p>
+     * 1. Destination frame is height x width.
+     * 2. Pixel (x, y) of source moves to (height - 1 - y, x) of destination.
+     *
+     * @param src    Source NV21 frame.
+     * @param dst    Destination NV21 frame (Must not be same as source).
+     * @param width  Source frame width (Must be even).
+     * @param height Source frame height (Must be even).
+     */
+    public void rotate90(@NonNull final byte[] src, @NonNull final byte[] dst, final int width, final int height) {
+        // Y plane.
+        for (int y = 0; y < height; y++) {
+            int srcRow = y * width;
+            int dstColumn = height - 1 - y;
+            for (int x = 0; x < width; x++) {
+                dst[x * height + dstColumn] = src[srcRow + x];
+            }
+        }
+
+        // Interleaved VU plane, rotated as pairs.
+        int chromaOffset = width * height;
+        int chromaWidth = width / 2;
+        int chromaHeight = height / 2;
+        for (int y = 0; y < chromaHeight; y++) {
+            int srcRow = chromaOffset + y * width;
+            int dstColumn = (chromaHeight - 1 - y) * 2;
+            for (int x = 0; x < chromaWidth; x++) {
+                int dstIndex = chromaOffset + x * height + dstColumn;
+                dst[dstIndex] = src[srcRow + 2 * x];
+                dst[dstIndex + 1] = src[srcRow + 2 * x + 1];
+            }
+        }
+    }
+
+    // PRIVATE METHODS.
+    private static void fillNeutralChroma(@NonNull final byte[] nv21, final int width, final int height) {
+        int chromaOffset = width * height;
+        int end = Math.min(nv21.length, getNv21Size(width, height));
+        if (chromaOffset < end) {
+            Arrays.fill(nv21, chromaOffset, end, NEUTRAL_CHROMA);
+        }
+    }
+}
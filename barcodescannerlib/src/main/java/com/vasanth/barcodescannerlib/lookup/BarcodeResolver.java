@@ -0,0 +1,28 @@
+package com.vasanth.barcodescannerlib.lookup;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Barcode Resolver.
+ * <p>
+ * 1. Resolves a scanned barcode value to a record (Ex - A product in a product catalogue).
+ * 2. Implementations are called from a background thread, so they may block on network or disk.
+ *
+ * @param <T> Type of the resolved record.
+ * @author Vasanth
+ */
+public interface BarcodeResolver<T> {
+
+    /**
+     * Resolve the given barcode value.
+     *
+     * @param rawValue Barcode raw value.
+     * @return Resolved record or NULL if there is no record for the given barcode.
+     * @throws IOException If the record could not be looked up.
+     */
+    @Nullable
+    T resolve(@NonNull String rawValue) throws IOException;
+}
@@ -0,0 +1,413 @@
+package com.vasanth.barcodescannerlib.lookup;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Caching Barcode Resolver.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Wraps the actual (slow) resolver - Ex - product catalogue lookup.
+ * 1.b. Looks up the record in memory cache, then in disk cache (optional) & only then in the actual resolver.
+ * 1.c. Looks up the accepted barcode in background & delivers the record to a {@link Callback}, so that caller is never blocked.
+ * 1.d. Remembers recently scanned (i.e accepted, Refer - get) codes, so that their records can be warmed up when the scanner starts.
+ * Codes which are only resolved / prefetched are not remembered.
+ * <p>
+ * 2. Usage.
+ * 2.a. Create instance using {@link Builder} & set it using BarcodeScannerActivity#setBarcodeResolver.
+ *
+ * @param <T> Type of the resolved record.
+ * @author Vasanth
+ */
+public class CachingBarcodeResolver<T> implements BarcodeResolver<T> {
+
+    /**
+     * Callback.
+     *
+     * @param <T> Type of the resolved record.
+     */
+    public interface Callback<T> {
+
+        /**
+         * Called on caller thread if record is in memory, else on resolver thread.
+         *
+         * @param rawValue Barcode raw value.
+         * @param record   Resolved record or NULL if not found or failed.
+         */
+        void onRecordResolved(@NonNull String rawValue, @Nullable T record);
+    }
+
+    private static final int DEFAULT_MEMORY_CACHE_SIZE = 64;
+    private static final int DEFAULT_RECENT_CODES_SIZE = 16;
+
+    private final BarcodeResolver<T> resolver;
+    private final LruRecordCache<T> memoryCache;
+    @Nullable
+    private final DiskRecordCache<T> diskCache;
+    private final ExecutorService executor;
+    private final int recentCodesSize;
+    private final Map<String, LookupTask> pendingLookups;
+    private final LinkedList<String> recentCodes;
+
+    private CachingBarcodeResolver(@NonNull final Builder<T> builder) {
+        this.resolver = builder.resolver;
+        this.memoryCache = new LruRecordCache<>(builder.memoryCacheSize);
+        this.diskCache = builder.diskCache;
+        this.executor = builder.executor != null ? builder.executor : createDefaultExecutor();
+        this.recentCodesSize = builder.recentCodesSize;
+        this.pendingLookups = new HashMap<>();
+        this.recentCodes = new LinkedList<>();
+    }
+
+    // BarcodeResolver METHODS.
+
+    /**
+     * Resolve the given barcode value synchronously.
+     * <p>
+     * 1. Memory cache -> Disk cache -> Actual resolver.
+     * 2. Record resolved from a slower level is stored back in the faster levels.
+     *
+     * @param rawValue Barcode raw value.
+     * @return Resolved record or NULL.
+     * @throws IOException If the actual resolver fails.
+     */
+    @Nullable
+    @Override
+    public T resolve(@NonNull final String rawValue) throws IOException {
+        T record = memoryCache.get(rawValue);
+        if (record != null) {
+            return record;
+        }
+
+        if (diskCache != null) {
+            record = diskCache.get(rawValue);
+            if (record != null) {
+                memoryCache.put(rawValue, record);
+                return record;
+            }
+        }
+
+        record = resolver.resolve(rawValue);
+        if (record != null) {
+            memoryCache.put(rawValue, record);
+            if (diskCache != null) {
+                diskCache.put(rawValue, record);
+            }
+        }
+        return record;
+    }
+
+    // PUBLIC METHODS.
+
+    /**
+     * Start resolving the given barcode value in background.
+     * <p>
+     * 1. If a lookup for the same value is already in progress, that lookup is returned.
+     * 2. Barcode is not remembered as recently scanned.
+     *
+     * @param rawValue Barcode raw value.
+     * @return Future of the resolved record.
+     */
+    @NonNull
+    public Future<T> prefetch(@NonNull final String rawValue) {
+        return startLookup(rawValue);
+    }
+
+    /**
+     * Used to get the record of a scanned (i.e accepted) barcode, without blocking the caller.
+     * <p>
+     * 1. Calls back right away if the record is in memory, else joins the prefetch (or starts one).
+     * 2. Barcode is remembered as recently scanned.
+     *
+     * @param rawValue Barcode raw value.
+     * @param callback Callback, called once.
+     */
+    public void get(@NonNull final String rawValue, @NonNull final Callback<? super T> callback) {
+        rememberRecentCode(rawValue);
+        T record = memoryCache.get(rawValue);
+        if (record != null) {
+            callback.onRecordResolved(rawValue, record);
+            return;
+        }
+        startLookup(rawValue).addCallback(callback);
+    }
+
+    /**
+     * Used to get the record of a scanned (i.e accepted) barcode, waiting at most the given time.
+     * <p>
+     * 1. Returns immediately if the record is in memory.
+     * 2. Else joins the prefetch (or starts one) & waits for it.
+     * 3. Barcode is remembered as recently scanned.
+     *
+     * @param rawValue      Barcode raw value.
+     * @param timeoutMillis Maximum time to wait.
+     * @return Resolved record or NULL if not found, failed or timed out.
+     */
+    @Nullable
+    public T get(@NonNull final String rawValue, final long timeoutMillis) {
+        rememberRecentCode(rawValue);
+        T record = memoryCache.get(rawValue);
+        if (record != null) {
+            return record;
+        }
+        try {
+            return startLookup(rawValue).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Used to warm up the memory cache with records of recently scanned codes.
+     * <p>
+     * 1. If disk cache is available, recently scanned codes are also read back from disk (Ex - After process restart).
+     * 2. Runs on the executor, as listing the disk cache must not block the caller (Ex - Activity#onCreate).
+     */
+    public void prefetchRecentCodes() {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (String rawValue : getRecentCodes()) {
+                        if (memoryCache.get(rawValue) == null) {
+                            prefetch(rawValue);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor is shut down, nothing to warm up.
+        }
+    }
+
+    /**
+     * Used to get recently scanned codes, most recent first.
+     * <p>
+     * 1. Reads the disk cache, so don't call it from UI thread.
+     *
+     * @return Recently scanned codes.
+     */
+    @NonNull
+    public List<String> getRecentCodes() {
+        List<String> codes;
+        synchronized (recentCodes) {
+            codes = new ArrayList<>(recentCodes);
+        }
+        if (diskCache != null && codes.size() < recentCodesSize) {
+            for (String rawValue : diskCache.getRecentKeys(recentCodesSize)) {
+                if (codes.size() >= recentCodesSize) {
+                    break;
+                }
+                if (!codes.contains(rawValue)) {
+                    codes.add(rawValue);
+                }
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Used to clear both memory & disk cache.
+     */
+    public void clear() {
+        memoryCache.clear();
+        if (diskCache != null) {
+            diskCache.clear();
+        }
+        synchronized (recentCodes) {
+            recentCodes.clear();
+        }
+    }
+
+    /**
+     * Used to stop the background executor. Resolver should not be used after this.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // PRIVATE METHODS.
+
+    /**
+     * Lookup is registered before it is handed to the executor, as a direct executor runs it (and so removes it) right away.
+     */
+    @NonNull
+    private LookupTask startLookup(@NonNull final String rawValue) {
+        LookupTask task;
+        synchronized (pendingLookups) {
+            task = pendingLookups.get(rawValue);
+            if (task != null) {
+                return task;
+            }
+            task = new LookupTask(rawValue, new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    try {
+                        return resolve(rawValue);
+                    } finally {
+                        synchronized (pendingLookups) {
+                            pendingLookups.remove(rawValue);
+                        }
+                    }
+                }
+            });
+            pendingLookups.put(rawValue, task);
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Executor is shut down - Don't leave the lookup registered.
+            synchronized (pendingLookups) {
+                pendingLookups.remove(rawValue);
+            }
+            task.cancel(false);
+        }
+        return task;
+    }
+
+    private void rememberRecentCode(@NonNull final String rawValue) {
+        synchronized (recentCodes) {
+            recentCodes.remove(rawValue);
+            recentCodes.addFirst(rawValue);
+            while (recentCodes.size() > recentCodesSize) {
+                recentCodes.removeLast();
+            }
+        }
+    }
+
+    @NonNull
+    private static ExecutorService createDefaultExecutor() {
+        return Executors.newFixedThreadPool(2, new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "BarcodeResolver");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Lookup Task.
+     * <p>
+     * 1. Callbacks added before completion are called from {@link #done()} (i.e on resolver thread), later ones right away.
+     */
+    private class LookupTask extends FutureTask<T> {
+
+        private final String rawValue;
+        private final ArrayList<Callback<? super T>> callbacks = new ArrayList<>(1);
+        private boolean isCompleted;
+
+        LookupTask(@NonNull final String rawValue, @NonNull final Callable<T> callable) {
+            super(callable);
+            this.rawValue = rawValue;
+        }
+
+        void addCallback(@NonNull final Callback<? super T> callback) {
+            synchronized (callbacks) {
+                if (!isCompleted) {
+                    callbacks.add(callback);
+                    return;
+                }
+            }
+            callback.onRecordResolved(rawValue, getRecord());
+        }
+
+        @Override
+        protected void done() {
+            T record = getRecord();
+            ArrayList<Callback<? super T>> completedCallbacks;
+            synchronized (callbacks) {
+                isCompleted = true;
+                completedCallbacks = new ArrayList<>(callbacks);
+                callbacks.clear();
+            }
+            for (Callback<? super T> callback : completedCallbacks) {
+                callback.onRecordResolved(rawValue, record);
+            }
+        }
+
+        /**
+         * Task is done, so this doesn't block.
+         */
+        @Nullable
+        private T getRecord() {
+            try {
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Builder.
+     *
+     * @param <T> Type of the resolved record.
+     */
+    public static class Builder<T> {
+
+        private final BarcodeResolver<T> resolver;
+        private int memoryCacheSize = DEFAULT_MEMORY_CACHE_SIZE;
+        private int recentCodesSize = DEFAULT_RECENT_CODES_SIZE;
+        private DiskRecordCache<T> diskCache;
+        private ExecutorService executor;
+
+        /**
+         * Constructor.
+         *
+         * @param resolver Actual resolver (Ex - Product catalogue lookup).
+         */
+        public Builder(@NonNull final BarcodeResolver<T> resolver) {
+            this.resolver = resolver;
+        }
+
+        public Builder<T> setMemoryCacheSize(final int memoryCacheSize) {
+            this.memoryCacheSize = memoryCacheSize;
+            return this;
+        }
+
+        public Builder<T> setRecentCodesSize(final int recentCodesSize) {
+            this.recentCodesSize = recentCodesSize;
+            return this;
+        }
+
+        public Builder<T> setDiskCache(@Nullable final DiskRecordCache<T> diskCache) {
+            this.diskCache = diskCache;
+            return this;
+        }
+
+        public Builder<T> setExecutor(@Nullable final ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public CachingBarcodeResolver<T> build() {
+            return new CachingBarcodeResolver<>(this);
+        }
+    }
+}
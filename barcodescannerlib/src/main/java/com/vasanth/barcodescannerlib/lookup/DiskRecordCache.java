@@ -0,0 +1,241 @@
+package com.vasanth.barcodescannerlib.lookup;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Disk Record Cache.
+ * <p>
+ * 1. Stores resolved records as files inside the given directory (Ex - Context#getCacheDir()).
+ * 2. File name is the SHA-1 of barcode raw value (Raw values can be longer than a file name - Ex - QR code).
+ * 3. File holds the raw value (length prefixed) followed by the encoded record, so that we can list recently scanned codes back
+ * from disk & detect hash collisions.
+ * 4. Once the cache holds more than "maxEntries" files, the least recently written files are deleted.
+ *
+ * @param <T> Type of the resolved record.
+ * @author Vasanth
+ */
+public class DiskRecordCache<T> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String FILE_SUFFIX = ".rec";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    // Largest QR code payload is below 3 KB.
+    private static final int MAX_KEY_LENGTH = 64 * 1024;
+
+    private final File directory;
+    private final RecordCodec<T> codec;
+    private final int maxEntries;
+
+    /**
+     * Constructor.
+     *
+     * @param directory  Directory used to store the records.
+     * @param codec      Codec used to encode/decode records.
+     * @param maxEntries Maximum number of records to keep on disk.
+     */
+    public DiskRecordCache(@NonNull final File directory, @NonNull final RecordCodec<T> codec, final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries <= 0");
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get the record from disk.
+     *
+     * @param rawValue Barcode raw value.
+     * @return Record or NULL if not present (or not readable).
+     */
+    @Nullable
+    public synchronized T get(@NonNull final String rawValue) {
+        File file = fileFor(rawValue);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(file));
+            try {
+                if (!rawValue.equals(readKey(in))) {
+                    // Hash collision, treat as miss.
+                    return null;
+                }
+                return codec.decode(readFully(in));
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // Corrupt entry - Remove it, so that it gets resolved again.
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Put the record to disk.
+     *
+     * @param rawValue Barcode raw value.
+     * @param record   Record.
+     */
+    public synchronized void put(@NonNull final String rawValue, @NonNull final T record) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return;
+        }
+        File file = fileFor(rawValue);
+        try {
+            writeEntry(file, rawValue, codec.encode(record));
+        } catch (IOException e) {
+            file.delete();
+            return;
+        }
+        trimToSize();
+    }
+
+    /**
+     * Used to get recently written barcode values, most recent first.
+     *
+     * @param limit Maximum number of values to return.
+     * @return Barcode raw values.
+     */
+    @NonNull
+    public synchronized List<String> getRecentKeys(final int limit) {
+        File[] files = listEntries();
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long l = lhs.lastModified();
+                long r = rhs.lastModified();
+                return l > r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < files.length && keys.size() < limit; i++) {
+            try {
+                DataInputStream in = new DataInputStream(new FileInputStream(files[i]));
+                try {
+                    keys.add(readKey(in));
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                // Unreadable entry, skip it.
+            }
+        }
+        return keys;
+    }
+
+    public synchronized void clear() {
+        for (File file : listEntries()) {
+            file.delete();
+        }
+    }
+
+    // PRIVATE METHODS.
+    private void trimToSize() {
+        File[] files = listEntries();
+        if (files.length <= maxEntries) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long l = lhs.lastModified();
+                long r = rhs.lastModified();
+                return l < r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < files.length - maxEntries; i++) {
+            files[i].delete();
+        }
+    }
+
+    @NonNull
+    private File[] listEntries() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        List<File> entries = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (file.isFile() && file.getName().endsWith(FILE_SUFFIX)) {
+                entries.add(file);
+            }
+        }
+        return entries.toArray(new File[entries.size()]);
+    }
+
+    @NonNull
+    private File fileFor(@NonNull final String rawValue) {
+        return new File(directory, encodeKey(rawValue) + FILE_SUFFIX);
+    }
+
+    @NonNull
+    private static String encodeKey(@NonNull final String rawValue) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(rawValue.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is always available.
+            throw new IllegalStateException(e);
+        }
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    @NonNull
+    private static String readKey(@NonNull final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_KEY_LENGTH) {
+            throw new IOException("Invalid key length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    @NonNull
+    private static byte[] readFully(@NonNull final InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeEntry(@NonNull final File file, @NonNull final String rawValue, @NonNull final byte[] record) throws IOException {
+        byte[] key = rawValue.getBytes(UTF_8);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(key.length);
+            out.write(key);
+            out.write(record);
+        } finally {
+            out.close();
+        }
+    }
+}
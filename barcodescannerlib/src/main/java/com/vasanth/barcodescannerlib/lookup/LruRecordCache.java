@@ -0,0 +1,66 @@
+package com.vasanth.barcodescannerlib.lookup;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU Record Cache.
+ * <p>
+ * 1. In-memory cache of resolved records keyed by barcode raw value.
+ * 2. Once the cache is full, the least recently used record is evicted.
+ *
+ * @param <T> Type of the resolved record.
+ * @author Vasanth
+ */
+public class LruRecordCache<T> {
+
+    private final int maxSize;
+    private final LinkedHashMap<String, T> map;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize Maximum number of records to keep in memory.
+     */
+    public LruRecordCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+        // Access order = TRUE, so that iteration order is from least to most recently used.
+        this.map = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return size() > LruRecordCache.this.maxSize;
+            }
+        };
+    }
+
+    @Nullable
+    public synchronized T get(@NonNull final String rawValue) {
+        return map.get(rawValue);
+    }
+
+    public synchronized void put(@NonNull final String rawValue, @NonNull final T record) {
+        map.put(rawValue, record);
+    }
+
+    public synchronized void remove(@NonNull final String rawValue) {
+        map.remove(rawValue);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vasanth.barcodescannerlib.lookup;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Record Codec.
+ * <p>
+ * 1. Used by {@link DiskRecordCache} to convert a resolved record to bytes and back.
+ *
+ * @param <T> Type of the resolved record.
+ * @author Vasanth
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Encode the record.
+     *
+     * @param record Record.
+     * @return Encoded bytes.
+     */
+    @NonNull
+    byte[] encode(@NonNull T record);
+
+    /**
+     * Decode the record.
+     *
+     * @param bytes Encoded bytes.
+     * @return Record.
+     * @throws IOException If bytes cannot be decoded.
+     */
+    @NonNull
+    T decode(@NonNull byte[] bytes) throws IOException;
+}
@@ -0,0 +1,530 @@
+package com.vasanth.barcodescannerlib.service;
+
+import android.Manifest;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.Service;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.app.NotificationCompat;
+import android.support.v4.content.ContextCompat;
+import android.util.Log;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.MultiProcessor;
+import com.google.android.gms.vision.Tracker;
+import com.google.android.gms.vision.barcode.Barcode;
+import com.vasanth.barcodescannerlib.R;
+import com.vasanth.barcodescannerlib.camera.BarcodeScannerController;
+import com.vasanth.barcodescannerlib.camera.ScanDegradationMonitor;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * Barcode Scanner Service.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Owns a single camera & detector pipeline (Refer - {@link BarcodeScannerController}), shared by client apps bound to it,
+ * so that switching between apps doesn't cost a cold start of the detector.
+ * 1.b. Camera runs (without preview) only while at least one client is subscribed, detector is kept warm while any client is bound.
+ * 1.c. Each barcode is sent once, when it is first detected (i.e not on every frame), to the subscribers whose format filter matches.
+ * 1.d. Results are sent in compact batches (Refer - {@link ScanResultBatch}), once per {@link #BATCH_INTERVAL} or as soon as a batch is full.
+ * <p>
+ * 2. Protocol (Messenger).
+ * 2.a. {@link #MSG_SUBSCRIBE} - replyTo = client messenger, arg1 = Barcode format filter (Barcode.ALL_FORMATS for all). Re-subscribing updates the filter.
+ * 2.b. {@link #MSG_UNSUBSCRIBE} - replyTo = client messenger.
+ * 2.c. {@link #MSG_RESULTS} - Sent to client, data = {@link ScanResultBatch#toBundle()}.
+ * 2.d. {@link #MSG_STATE} - Sent to client, arg1 = STATE_*.
+ * 2.e. Use {@link BarcodeScannerServiceClient} instead of sending messages directly.
+ * <p>
+ * 3. Notes.
+ * 3.a. Service is disabled by default, one of the apps (i.e host) enables it by overriding "barcodeScanner_scannerServiceEnabled" bool resource.
+ * 3.b. Host app must have camera permission granted (Ex - Scanned once using BarcodeScannerActivity).
+ * 3.c. Binding requires {@link #getBindPermission(String)} of the host, which is signature protected, so only apps signed with the same key can bind.
+ * Permission name is scoped by application id, so that every app using this library can be installed side by side.
+ * 3.d. Service runs in foreground (with a notification) while camera is running, as camera access is cut for background
+ * processes (Android 9+) & host process is usually in background while a client app is scanning.
+ *
+ * @author Vasanth
+ */
+public class BarcodeScannerService extends Service {
+
+    // Prefixed with application id in manifest (Refer - getBindPermission).
+    public static final String PERMISSION_BIND_SCANNER_SERVICE_SUFFIX = ".permission.BIND_SCANNER_SERVICE";
+
+    // Client -> Service.
+    public static final int MSG_SUBSCRIBE = 1;
+    public static final int MSG_UNSUBSCRIBE = 2;
+    // Service -> Client.
+    public static final int MSG_RESULTS = 101;
+    public static final int MSG_STATE = 102;
+
+    public static final int STATE_SCANNING = 1;
+    public static final int STATE_CAMERA_START_FAILED = 2;
+    public static final int STATE_DETECTOR_NOT_OPERATIONAL = 3;
+    public static final int STATE_NO_CAMERA_PERMISSION = 4;
+
+    static final long BATCH_INTERVAL = 100L;
+    static final int BATCH_CAPACITY = 16;
+    // Camera is kept running for a while after last subscriber left, so that handoff between apps doesn't restart it.
+    static final long CAMERA_LINGER = 3000L;
+
+    private static final String TAG = "BS Service";
+    private static final int NOTIFICATION_ID = 1;
+    private static final String NOTIFICATION_CHANNEL_ID = "barcodeScanner_scannerService";
+    // Internal messages, never accepted from clients.
+    private static final int MSG_BARCODE = 1;
+    private static final int MSG_FLUSH = 2;
+    private static final int MSG_STOP_CAMERA = 3;
+    private static final int MSG_SUBSCRIBER_DIED = 4;
+
+    private final ArrayList<Subscriber> subscribers = new ArrayList<>();
+    private Handler handler;
+    private Messenger messenger;
+    private boolean scanning;
+    private int state;
+
+    // Created on first subscription & kept until service is destroyed.
+    private BarcodeScannerController scannerController;
+    private ScanDegradationMonitor degradationMonitor;
+
+    // LIFE CYCLE METHODS.
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        handler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message msg) {
+                handleInternalMessage(msg);
+                return true;
+            }
+        });
+        messenger = new Messenger(new IncomingHandler(this));
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return messenger.getBinder();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (degradationMonitor != null) {
+            degradationMonitor.onTrimMemory(level);
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            removeSubscriber(i);
+        }
+        handler.removeCallbacksAndMessages(null);
+        stopScanning();
+        releaseScannerController();
+    }
+
+    // PUBLIC METHODS.
+
+    /**
+     * Client app must declare it (i.e uses-permission) in its manifest, to bind to the service of the host app.
+     *
+     * @param hostPackageName Package (i.e application id) of the app which has the service enabled.
+     * @return Permission required to bind to the service of the host app (Ex - "com.host.app.permission.BIND_SCANNER_SERVICE").
+     */
+    @NonNull
+    public static String getBindPermission(@NonNull final String hostPackageName) {
+        return hostPackageName + PERMISSION_BIND_SCANNER_SERVICE_SUFFIX;
+    }
+
+    // PACKAGE METHODS.
+
+    /**
+     * Used to publish detected barcode to subscribers, can be called from any thread.
+     *
+     * @param format   Barcode format.
+     * @param rawValue Barcode raw value.
+     */
+    void publishBarcode(final int format, @NonNull final String rawValue) {
+        handler.obtainMessage(MSG_BARCODE, format, 0, rawValue).sendToTarget();
+    }
+
+    /**
+     * Used to start scanning in foreground.
+     */
+    void startScanning() {
+        if (scanning) {
+            return;
+        }
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            setState(STATE_NO_CAMERA_PERMISSION);
+            return;
+        }
+        scanning = true;
+        state = 0;
+        startForeground(NOTIFICATION_ID, createNotification());
+        startCamera();
+    }
+
+    /**
+     * Used to stop scanning & leave foreground.
+     */
+    void stopScanning() {
+        if (!scanning) {
+            return;
+        }
+        scanning = false;
+        state = 0;
+        stopForeground(true);
+        stopCamera();
+    }
+
+    /**
+     * Used to start the camera without preview, detector is created on first start.
+     */
+    @VisibleForTesting
+    void startCamera() {
+        if (scannerController == null) {
+            scannerController = new BarcodeScannerController();
+            scannerController.setCallback(new ScannerControllerCallback());
+            scannerController.setHeadless(true);
+            scannerController.initialize(this, new ScanTrackerFactory(scannerController), 0);
+            degradationMonitor = new ScanDegradationMonitor(this, scannerController);
+        }
+        scannerController.start();
+        degradationMonitor.start();
+    }
+
+    /**
+     * Used to stop the camera, detector is kept.
+     */
+    @VisibleForTesting
+    void stopCamera() {
+        scannerController.stop();
+        degradationMonitor.stop();
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // PRIVATE METHODS.
+    private void handleInternalMessage(@NonNull final Message msg) {
+        switch (msg.what) {
+            case MSG_BARCODE:
+                onBarcode(msg.arg1, (String) msg.obj, SystemClock.elapsedRealtime());
+                break;
+            case MSG_FLUSH:
+                for (int i = subscribers.size() - 1; i >= 0; i--) {
+                    flush(i);
+                }
+                break;
+            case MSG_STOP_CAMERA:
+                if (subscribers.isEmpty()) {
+                    stopScanning();
+                }
+                break;
+            case MSG_SUBSCRIBER_DIED:
+                int index = subscribers.indexOf(msg.obj);
+                if (index >= 0) {
+                    removeSubscriber(index);
+                }
+                break;
+        }
+    }
+
+    private void subscribe(@Nullable final Messenger client, final int formats) {
+        if (client == null) {
+            return;
+        }
+        int index = indexOfSubscriber(client);
+        if (index >= 0) {
+            subscribers.get(index).formats = formats;
+            return;
+        }
+        Subscriber subscriber = new Subscriber(client, formats);
+        try {
+            client.getBinder().linkToDeath(subscriber, 0);
+        } catch (RemoteException e) {
+            // Client is already dead.
+            return;
+        }
+        subscribers.add(subscriber);
+        handler.removeMessages(MSG_STOP_CAMERA);
+        if (scanning) {
+            // Camera is already running (Ex - Other app is subscribed), so tell the current state.
+            if (state != 0) {
+                sendState(subscribers.size() - 1);
+            }
+        } else {
+            startScanning();
+        }
+    }
+
+    private void unsubscribe(@Nullable final Messenger client) {
+        int index = client != null ? indexOfSubscriber(client) : -1;
+        if (index >= 0) {
+            flush(index);
+            // Subscriber may have been removed by the flush (i.e client died).
+            index = indexOfSubscriber(client);
+            if (index >= 0) {
+                removeSubscriber(index);
+            }
+        }
+    }
+
+    private void onBarcode(final int format, @NonNull final String rawValue, final long timestamp) {
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            Subscriber subscriber = subscribers.get(i);
+            if (!subscriber.accepts(format)) {
+                continue;
+            }
+            subscriber.batch.add(format, rawValue, timestamp);
+            if (subscriber.batch.isFull()) {
+                // Send right away, rather than holding back results for the rest of the interval.
+                flush(i);
+            }
+        }
+        if (!handler.hasMessages(MSG_FLUSH)) {
+            handler.sendEmptyMessageDelayed(MSG_FLUSH, BATCH_INTERVAL);
+        }
+    }
+
+    /**
+     * Used to send pending batch of the subscriber, subscriber is removed if its process is dead.
+     */
+    private void flush(final int index) {
+        Subscriber subscriber = subscribers.get(index);
+        if (subscriber.batch.isEmpty()) {
+            return;
+        }
+        Message msg = Message.obtain(null, MSG_RESULTS);
+        msg.setData(subscriber.batch.toBundle());
+        subscriber.batch.clear();
+        send(index, msg);
+    }
+
+    private void setState(final int state) {
+        this.state = state;
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            sendState(i);
+        }
+    }
+
+    private void sendState(final int index) {
+        send(index, Message.obtain(null, MSG_STATE, state, 0));
+    }
+
+    private void send(final int index, @NonNull final Message msg) {
+        try {
+            subscribers.get(index).messenger.send(msg);
+        } catch (RemoteException e) {
+            Log.w(TAG, "Client is dead, removing it", e);
+            removeSubscriber(index);
+        }
+    }
+
+    private void removeSubscriber(final int index) {
+        Subscriber subscriber = subscribers.remove(index);
+        subscriber.messenger.getBinder().unlinkToDeath(subscriber, 0);
+        if (subscribers.isEmpty()) {
+            handler.removeMessages(MSG_FLUSH);
+            handler.sendEmptyMessageDelayed(MSG_STOP_CAMERA, CAMERA_LINGER);
+        }
+    }
+
+    private int indexOfSubscriber(@NonNull final Messenger client) {
+        for (int i = 0; i < subscribers.size(); i++) {
+            // Messenger equality is binder equality.
+            if (subscribers.get(i).messenger.equals(client)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @NonNull
+    private Notification createNotification() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationManager notificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+            // No-op if channel already exists.
+            notificationManager.createNotificationChannel(new NotificationChannel(NOTIFICATION_CHANNEL_ID,
+                    getString(R.string.barcodeScanner_service_notificationChannel), NotificationManager.IMPORTANCE_LOW));
+        }
+        return new NotificationCompat.Builder(this, NOTIFICATION_CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_menu_camera)
+                .setContentTitle(getString(R.string.barcodeScanner_service_notificationTitle))
+                .setCategory(NotificationCompat.CATEGORY_SERVICE)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setOngoing(true)
+                .build();
+    }
+
+    private void releaseScannerController() {
+        if (scannerController != null) {
+            scannerController.release();
+            scannerController = null;
+            degradationMonitor = null;
+        }
+    }
+
+    /**
+     * Subscriber.
+     */
+    private class Subscriber implements IBinder.DeathRecipient {
+
+        final Messenger messenger;
+        final ScanResultBatch batch = new ScanResultBatch(BATCH_CAPACITY);
+        int formats;
+
+        Subscriber(@NonNull final Messenger messenger, final int formats) {
+            this.messenger = messenger;
+            this.formats = formats;
+        }
+
+        boolean accepts(final int format) {
+            return formats == Barcode.ALL_FORMATS || (formats & format) != 0;
+        }
+
+        /**
+         * Called on a binder thread.
+         */
+        @Override
+        public void binderDied() {
+            handler.obtainMessage(MSG_SUBSCRIBER_DIED, this).sendToTarget();
+        }
+    }
+
+    /**
+     * Incoming Handler.
+     * <p>
+     * Static, as remote processes may hold the messenger after service is destroyed.
+     */
+    private static class IncomingHandler extends Handler {
+
+        private final WeakReference<BarcodeScannerService> serviceReference;
+
+        IncomingHandler(@NonNull final BarcodeScannerService service) {
+            super(Looper.getMainLooper());
+            this.serviceReference = new WeakReference<>(service);
+        }
+
+        @Override
+        public void handleMessage(Message msg) {
+            BarcodeScannerService service = serviceReference.get();
+            if (service == null) {
+                return;
+            }
+            switch (msg.what) {
+                case MSG_SUBSCRIBE:
+                    service.subscribe(msg.replyTo, msg.arg1);
+                    break;
+                case MSG_UNSUBSCRIBE:
+                    service.unsubscribe(msg.replyTo);
+                    break;
+                default:
+                    super.handleMessage(msg);
+            }
+        }
+    }
+
+    /**
+     * Scanner Controller Callback.
+     */
+    private class ScannerControllerCallback implements BarcodeScannerController.Callback {
+
+        @Override
+        public void onCameraSourceReady() {
+        }
+
+        @Override
+        public void onDetectorNotOperational(boolean hasLowStorage) {
+            // Drop the pipeline, so that next subscription retries (i.e once dependencies are downloaded).
+            stopScanning();
+            releaseScannerController();
+            setState(STATE_DETECTOR_NOT_OPERATIONAL);
+        }
+
+        @Override
+        public void onCameraStarted() {
+            setState(STATE_SCANNING);
+        }
+
+        @Override
+        public void onCameraStartFailed(@NonNull Exception e) {
+            // Camera is already stopped, so only leave foreground.
+            scanning = false;
+            stopForeground(true);
+            degradationMonitor.stop();
+            setState(STATE_CAMERA_START_FAILED);
+        }
+
+        @Override
+        public void onIdleChanged(boolean idle) {
+        }
+
+        @Override
+        public void onBarcodeDetected(@NonNull SparseArray<Barcode> frameBarcodes, @NonNull Barcode barcode) {
+            if (barcode.rawValue != null) {
+                publishBarcode(barcode.format, barcode.rawValue);
+            }
+        }
+    }
+
+    /**
+     * Scan Tracker Factory.
+     */
+    private static class ScanTrackerFactory implements MultiProcessor.Factory<Barcode> {
+
+        private final BarcodeScannerController scannerController;
+
+        ScanTrackerFactory(@NonNull final BarcodeScannerController scannerController) {
+            this.scannerController = scannerController;
+        }
+
+        @Override
+        public Tracker<Barcode> create(Barcode barcode) {
+            return new ScanTracker(scannerController);
+        }
+    }
+
+    /**
+     * Scan Tracker.
+     * <p>
+     * Dispatches the barcode only on its first update (i.e once per appearance), as service has no view finder to check.
+     */
+    private static class ScanTracker extends Tracker<Barcode> {
+
+        private final BarcodeScannerController scannerController;
+        private boolean dispatched;
+
+        ScanTracker(@NonNull final BarcodeScannerController scannerController) {
+            this.scannerController = scannerController;
+        }
+
+        @Override
+        public void onUpdate(Detector.Detections<Barcode> detections, Barcode barcode) {
+            if (!dispatched) {
+                dispatched = true;
+                scannerController.dispatchBarcode(detections.getDetectedItems(), barcode);
+            }
+        }
+    }
+}
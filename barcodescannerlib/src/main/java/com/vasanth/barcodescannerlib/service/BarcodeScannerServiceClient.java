@@ -0,0 +1,195 @@
+package com.vasanth.barcodescannerlib.service;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Barcode Scanner Service Client.
+ * <p>
+ * 1. Binds to {@link BarcodeScannerService} of the host app & subscribes with a format filter.
+ * 2. If service is restarted (Ex - Host process killed), client is re-subscribed once it is re-connected.
+ * 3. Must be used from UI thread, listener is called on UI thread.
+ * <p>
+ * 4. Usage.
+ * 4.a. Add "barcodeScanner_scannerServiceEnabled" bool resource (TRUE) to the host app.
+ * 4.b. Add &lt;uses-permission android:name="com.host.app.permission.BIND_SCANNER_SERVICE" /&gt; to the client app
+ * (Refer - {@link BarcodeScannerService#getBindPermission(String)}). Signature permissions are granted only if host app is installed first.
+ * 4.c. new BarcodeScannerServiceClient(context, "com.host.app", Barcode.QR_CODE | Barcode.EAN_13, listener).connect();
+ * 4.d. Keeping the client connected (even while not interested in results) keeps the detector warm.
+ *
+ * @author Vasanth
+ */
+public class BarcodeScannerServiceClient {
+
+    /**
+     * Listener.
+     */
+    public interface Listener {
+
+        /**
+         * Barcode's detected since last batch, batch is valid only during the call.
+         *
+         * @param batch Batch.
+         */
+        void onScanResults(@NonNull ScanResultBatch batch);
+
+        /**
+         * @param state BarcodeScannerService STATE_*.
+         */
+        void onScannerStateChanged(int state);
+
+        /**
+         * Host process died, client is re-connected once service is restarted.
+         */
+        void onDisconnected();
+    }
+
+    private static final String TAG = "BS Service Client";
+
+    private final Context context;
+    private final ComponentName serviceComponent;
+    private final Listener listener;
+    private final Messenger replyMessenger;
+    private final ServiceConnection serviceConnection;
+    private Messenger serviceMessenger;
+    private boolean bound;
+
+    /**
+     * Constructor.
+     *
+     * @param context         Context.
+     * @param hostPackageName Package of the app which has the service enabled.
+     * @param formats         Barcode formats (Ex - Barcode.QR_CODE | Barcode.EAN_13) or Barcode.ALL_FORMATS.
+     * @param listener        Listener.
+     */
+    public BarcodeScannerServiceClient(@NonNull final Context context, @NonNull final String hostPackageName, final int formats,
+                                       @NonNull final Listener listener) {
+        this.context = context.getApplicationContext();
+        this.serviceComponent = new ComponentName(hostPackageName, BarcodeScannerService.class.getName());
+        this.listener = listener;
+        this.replyMessenger = new Messenger(new ReplyHandler(this));
+        this.serviceConnection = new ServiceConnection() {
+            @Override
+            public void onServiceConnected(ComponentName name, IBinder service) {
+                serviceMessenger = new Messenger(service);
+                send(Message.obtain(null, BarcodeScannerService.MSG_SUBSCRIBE, formats, 0));
+            }
+
+            @Override
+            public void onServiceDisconnected(ComponentName name) {
+                serviceMessenger = null;
+                listener.onDisconnected();
+            }
+        };
+    }
+
+    // PUBLIC METHODS.
+
+    /**
+     * Used to bind to the service & subscribe.
+     *
+     * @return FALSE if service is not found, not enabled in host app or bind permission is not granted.
+     */
+    public boolean connect() {
+        if (bound) {
+            return true;
+        }
+        Intent intent = new Intent();
+        intent.setComponent(serviceComponent);
+        try {
+            bound = context.bindService(intent, serviceConnection, Context.BIND_AUTO_CREATE);
+        } catch (SecurityException e) {
+            Log.w(TAG, "Missing permission " + BarcodeScannerService.getBindPermission(serviceComponent.getPackageName()), e);
+            bound = false;
+        }
+        if (!bound) {
+            // Connection must be released even if binding failed.
+            context.unbindService(serviceConnection);
+        }
+        return bound;
+    }
+
+    /**
+     * Used to unsubscribe & unbind, camera is stopped once no client is subscribed.
+     */
+    public void disconnect() {
+        if (!bound) {
+            return;
+        }
+        send(Message.obtain(null, BarcodeScannerService.MSG_UNSUBSCRIBE));
+        context.unbindService(serviceConnection);
+        serviceMessenger = null;
+        bound = false;
+    }
+
+    public boolean isConnected() {
+        return serviceMessenger != null;
+    }
+
+    // PRIVATE METHODS.
+    private void send(@NonNull final Message msg) {
+        Messenger serviceMessenger = this.serviceMessenger;
+        if (serviceMessenger == null) {
+            return;
+        }
+        msg.replyTo = replyMessenger;
+        try {
+            serviceMessenger.send(msg);
+        } catch (RemoteException e) {
+            // Service is dead, onServiceDisconnected will follow.
+            Log.w(TAG, "Unable to send message to service", e);
+        }
+    }
+
+    private void handleReply(@NonNull final Message msg) {
+        if (!bound) {
+            return;
+        }
+        switch (msg.what) {
+            case BarcodeScannerService.MSG_RESULTS:
+                ScanResultBatch batch = ScanResultBatch.fromBundle(msg.getData());
+                if (batch != null && !batch.isEmpty()) {
+                    listener.onScanResults(batch);
+                }
+                break;
+            case BarcodeScannerService.MSG_STATE:
+                listener.onScannerStateChanged(msg.arg1);
+                break;
+        }
+    }
+
+    /**
+     * Reply Handler.
+     * <p>
+     * Static, as service process holds the reply messenger & it must not keep the client (and so its listener) alive.
+     */
+    private static class ReplyHandler extends Handler {
+
+        private final WeakReference<BarcodeScannerServiceClient> clientReference;
+
+        ReplyHandler(@NonNull final BarcodeScannerServiceClient client) {
+            super(Looper.getMainLooper());
+            this.clientReference = new WeakReference<>(client);
+        }
+
+        @Override
+        public void handleMessage(Message msg) {
+            BarcodeScannerServiceClient client = clientReference.get();
+            if (client != null) {
+                client.handleReply(msg);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.vasanth.barcodescannerlib.service;
+
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Scan Result Batch.
+ * <p>
+ * 1. Barcode's detected within one batch interval, sent to a client in one message.
+ * 2. Compact - Only format, raw value & detection time are sent, as parallel primitive arrays (i.e no custom Parcelable),
+ * so that client doesn't need our classes to read it & nothing is allocated per barcode on parceling.
+ * 3. Same barcode detected again within the batch is sent once (with latest detection time).
+ * 4. Not thread safe.
+ *
+ * @author Vasanth
+ */
+public class ScanResultBatch {
+
+    static final String KEY_FORMATS = "formats";
+    static final String KEY_RAW_VALUES = "rawValues";
+    static final String KEY_TIMESTAMPS = "timestamps";
+
+    private final int[] formats;
+    private final String[] rawValues;
+    private final long[] timestamps;
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Max barcode's in the batch.
+     */
+    public ScanResultBatch(final int capacity) {
+        this(new int[capacity], new String[capacity], new long[capacity], 0);
+    }
+
+    private ScanResultBatch(@NonNull final int[] formats, @NonNull final String[] rawValues, @NonNull final long[] timestamps, final int size) {
+        this.formats = formats;
+        this.rawValues = rawValues;
+        this.timestamps = timestamps;
+        this.size = size;
+    }
+
+    /**
+     * Used to read the batch received from service.
+     *
+     * @param bundle Message data.
+     * @return Batch or NULL if bundle is not a batch.
+     */
+    @Nullable
+    public static ScanResultBatch fromBundle(@Nullable final Bundle bundle) {
+        if (bundle == null) {
+            return null;
+        }
+        int[] formats = bundle.getIntArray(KEY_FORMATS);
+        String[] rawValues = bundle.getStringArray(KEY_RAW_VALUES);
+        long[] timestamps = bundle.getLongArray(KEY_TIMESTAMPS);
+        if (formats == null || rawValues == null || timestamps == null
+                || formats.length != rawValues.length || formats.length != timestamps.length) {
+            return null;
+        }
+        return new ScanResultBatch(formats, rawValues, timestamps, formats.length);
+    }
+
+    /**
+     * Used to add detected barcode.
+     *
+     * @param format    Barcode format.
+     * @param rawValue  Barcode raw value.
+     * @param timestamp Detection time (Ex - SystemClock.elapsedRealtime()).
+     * @return FALSE if batch is full & barcode is not already in the batch.
+     */
+    public boolean add(final int format, @NonNull final String rawValue, final long timestamp) {
+        for (int i = 0; i < size; i++) {
+            if (formats[i] == format && rawValues[i].equals(rawValue)) {
+                timestamps[i] = timestamp;
+                return true;
+            }
+        }
+        if (size == formats.length) {
+            return false;
+        }
+        formats[size] = format;
+        rawValues[size] = rawValue;
+        timestamps[size] = timestamp;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return Bundle to be set as message data, arrays are trimmed to size.
+     */
+    @NonNull
+    public Bundle toBundle() {
+        Bundle bundle = new Bundle();
+        bundle.putIntArray(KEY_FORMATS, Arrays.copyOf(formats, size));
+        bundle.putStringArray(KEY_RAW_VALUES, Arrays.copyOf(rawValues, size));
+        bundle.putLongArray(KEY_TIMESTAMPS, Arrays.copyOf(timestamps, size));
+        return bundle;
+    }
+
+    public void clear() {
+        Arrays.fill(rawValues, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == formats.length;
+    }
+
+    public int getFormat(final int index) {
+        return formats[index];
+    }
+
+    @NonNull
+    public String getRawValue(final int index) {
+        return rawValues[index];
+    }
+
+    public long getTimestamp(final int index) {
+        return timestamps[index];
+    }
+}
@@ -7,19 +7,29 @@ import android.graphics.Paint;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.Display;
 import android.view.View;
 import android.view.WindowManager;
 
 import com.vasanth.barcodescannerlib.R;
+import com.vasanth.barcodescannerlib.acceptance.AcceptancePolicy;
+import com.vasanth.barcodescannerlib.diagnostics.ScanDiagnostics;
 
+import java.util.Arrays;
 
 /**
  * Barcode Scanner Overlay View.
  * <p>
  * 1. This view is overlaid on top of the camera preview. It adds the viewfinder rectangle and partial
  * transparency outside it, as well as the laser scanner animation
+ * 2. View finder adapts to orientation - In portrait it keeps the landscape aspect ratio, so that 1D barcodes fit across it.
+ * 3. While scanner is idle (Refer - {@link #setIdle(boolean)}), laser is drawn static & animation is stopped to save battery.
+ * 4. When diagnostics is set (Refer - {@link #setDiagnostics(ScanDiagnostics)}), it also draws the detection heatmap, recently
+ * rejected barcode's with reason & decode FPS / latency. All of it is drawn from preallocated buffers, so it doesn't allocate per frame.
  *
  * @author Vasanth
  */
@@ -32,6 +42,8 @@ public class BarcodeScannerOverlayView extends View {
     private static final int MAX_FRAME_HEIGHT = 675; // = 5/8 * 1080
     private static final int[] SCANNER_ALPHA = {0, 64, 128, 192, 255, 192, 128, 64};
     private static final long ANIMATION_DELAY = 80L;
+    private static final int IDLE_SCANNER_ALPHA = 64;
+    private static final int HEATMAP_MAX_ALPHA = 160;
 
     private Context context;
     private Rect viewFinderRect;
@@ -41,6 +53,21 @@ public class BarcodeScannerOverlayView extends View {
     private final int maskColor;
     private final int laserColor;
     private int scannerAlpha = 0;
+    private boolean idle;
+
+    // Diagnostics (Debug only).
+    private ScanDiagnostics diagnostics;
+    private final Paint debugPaint;
+    private final Paint debugTextPaint;
+    private final int debugRejectedColor;
+    private final int debugHeatmapColor;
+    private final String[] debugRejectionReasons;
+    private final String debugFpsLabel;
+    private final String debugLatencyLabel;
+    private final int[] debugRejectionRects = new int[ScanDiagnostics.MAX_REJECTIONS * 4];
+    private final int[] debugRejectionReasonCodes = new int[ScanDiagnostics.MAX_REJECTIONS];
+    private final int[] debugHeatmap = new int[ScanDiagnostics.HEATMAP_COLUMNS * ScanDiagnostics.HEATMAP_ROWS];
+    private final char[] debugText = new char[64];
 
     /**
      * Constructor.
@@ -59,6 +86,27 @@ public class BarcodeScannerOverlayView extends View {
         Resources resources = getResources();
         maskColor = resources.getColor(R.color.barcodeScanner_overlayMask);
         laserColor = resources.getColor(R.color.barcodeScanner_overlayLaser);
+
+        debugPaint = new Paint();
+        debugPaint.setStrokeWidth(resources.getDisplayMetrics().density * 2);
+        debugTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        debugTextPaint.setColor(resources.getColor(R.color.white));
+        debugTextPaint.setTextSize(resources.getDimension(R.dimen.textSizeSmall));
+        debugRejectedColor = resources.getColor(R.color.barcodeScanner_debugRejected);
+        debugHeatmapColor = resources.getColor(R.color.barcodeScanner_debugHeatmap);
+        // Indexed by AcceptancePolicy REASON_* codes.
+        debugRejectionReasons = new String[AcceptancePolicy.REASON_COUNT];
+        Arrays.fill(debugRejectionReasons, "");
+        debugRejectionReasons[AcceptancePolicy.REASON_NO_GEOMETRY] = resources.getString(R.string.barcodeScanner_debug_rejectedNoGeometry);
+        debugRejectionReasons[AcceptancePolicy.REASON_OUTSIDE_VIEW_FINDER] = resources.getString(R.string.barcodeScanner_debug_rejectedOutsideViewFinder);
+        debugRejectionReasons[AcceptancePolicy.REASON_OFF_LASER_LINE] = resources.getString(R.string.barcodeScanner_debug_rejectedOffLaserLine);
+        debugRejectionReasons[AcceptancePolicy.REASON_FORMAT] = resources.getString(R.string.barcodeScanner_debug_rejectedFormat);
+        debugRejectionReasons[AcceptancePolicy.REASON_NOT_INTERSECTING_VIEW_FINDER] = resources.getString(R.string.barcodeScanner_debug_rejectedNotIntersectingViewFinder);
+        debugRejectionReasons[AcceptancePolicy.REASON_NOT_LARGEST] = resources.getString(R.string.barcodeScanner_debug_rejectedNotLargest);
+        debugRejectionReasons[AcceptancePolicy.REASON_NOT_CENTER_NEAREST] = resources.getString(R.string.barcodeScanner_debug_rejectedNotCenterNearest);
+        debugRejectionReasons[AcceptancePolicy.REASON_CUSTOM] = resources.getString(R.string.barcodeScanner_debug_rejectedCustom);
+        debugFpsLabel = resources.getString(R.string.barcodeScanner_debug_fps);
+        debugLatencyLabel = resources.getString(R.string.barcodeScanner_debug_latency);
     }
 
     /**
@@ -86,18 +134,146 @@ public class BarcodeScannerOverlayView extends View {
 
         // Draw a red "laser scanner" line through the middle to show decoding is active
         paint.setColor(laserColor);
-        paint.setAlpha(SCANNER_ALPHA[scannerAlpha]);
-        scannerAlpha = (scannerAlpha + 1) % SCANNER_ALPHA.length;
+        if (idle) {
+            paint.setAlpha(IDLE_SCANNER_ALPHA);
+        } else {
+            paint.setAlpha(SCANNER_ALPHA[scannerAlpha]);
+            scannerAlpha = (scannerAlpha + 1) % SCANNER_ALPHA.length;
+        }
         viewFinderMiddleY = frame.height() / 2 + frame.top;
         canvas.drawRect(frame.left + 2, viewFinderMiddleY - 1, frame.right - 1, viewFinderMiddleY + 2, paint);
 
-        // Request another update at the animation interval, but only repaint the laser line,
-        // not the entire viewfinder mask.
-        postInvalidateDelayed(ANIMATION_DELAY,
-                frame.left,
-                frame.top,
-                frame.right,
-                frame.bottom);
+        ScanDiagnostics diagnostics = this.diagnostics;
+        if (diagnostics != null) {
+            drawDiagnostics(canvas, diagnostics, width, height);
+            // Rejections & stats may be anywhere, so repaint the entire view.
+            postInvalidateDelayed(ANIMATION_DELAY);
+        } else if (!idle) {
+            // Request another update at the animation interval, but only repaint the laser line,
+            // not the entire viewfinder mask.
+            postInvalidateDelayed(ANIMATION_DELAY,
+                    frame.left,
+                    frame.top,
+                    frame.right,
+                    frame.bottom);
+        }
+    }
+
+    /**
+     * Used to draw diagnostics.
+     * <p>
+     * 1. Heatmap - Each cell is tinted by number of barcode's detected with center in that cell.
+     * Counts decay over time (Refer - ScanDiagnostics), so redraws keep fading it out even without detections.
+     * 2. Rejected barcode's of last second - Bounding box & reason.
+     * 3. Decode FPS & latency.
+     */
+    private void drawDiagnostics(@NonNull final Canvas canvas, @NonNull final ScanDiagnostics diagnostics, final int width, final int height) {
+        // 1. Heatmap.
+        int heatmapMax = diagnostics.copyHeatmap(debugHeatmap, SystemClock.elapsedRealtime());
+        if (heatmapMax > 0) {
+            debugPaint.setStyle(Paint.Style.FILL);
+            debugPaint.setColor(debugHeatmapColor);
+            for (int row = 0; row < ScanDiagnostics.HEATMAP_ROWS; row++) {
+                for (int column = 0; column < ScanDiagnostics.HEATMAP_COLUMNS; column++) {
+                    int count = debugHeatmap[row * ScanDiagnostics.HEATMAP_COLUMNS + column];
+                    if (count > 0) {
+                        debugPaint.setAlpha(count * HEATMAP_MAX_ALPHA / heatmapMax);
+                        canvas.drawRect(column * width / ScanDiagnostics.HEATMAP_COLUMNS, row * height / ScanDiagnostics.HEATMAP_ROWS,
+                                (column + 1) * width / ScanDiagnostics.HEATMAP_COLUMNS, (row + 1) * height / ScanDiagnostics.HEATMAP_ROWS,
+                                debugPaint);
+                    }
+                }
+            }
+        }
+
+        // 2. Rejected barcode's.
+        int rejectionCount = diagnostics.copyRecentRejections(debugRejectionRects, debugRejectionReasonCodes, SystemClock.elapsedRealtime());
+        debugPaint.setStyle(Paint.Style.STROKE);
+        debugPaint.setColor(debugRejectedColor);
+        for (int i = 0; i < rejectionCount; i++) {
+            int left = debugRejectionRects[i * 4];
+            int top = debugRejectionRects[i * 4 + 1];
+            canvas.drawRect(left, top, debugRejectionRects[i * 4 + 2], debugRejectionRects[i * 4 + 3], debugPaint);
+            int reason = debugRejectionReasonCodes[i];
+            if (reason >= 0 && reason < debugRejectionReasons.length) {
+                canvas.drawText(debugRejectionReasons[reason], left, top - debugTextPaint.descent(), debugTextPaint);
+            }
+        }
+
+        // 3. FPS & latency, formatted without creating Strings.
+        int length = appendText(debugText, 0, debugFpsLabel);
+        length = appendTenths(debugText, length, Math.round(diagnostics.getDecodeFps() * 10));
+        length = appendText(debugText, length, debugLatencyLabel);
+        length = appendTenths(debugText, length, Math.round(diagnostics.getDecodeLatencyMillis() * 10));
+        canvas.drawText(debugText, 0, length, debugTextPaint.getTextSize(), debugTextPaint.getTextSize() * 2, debugTextPaint);
+    }
+
+    private static int appendText(@NonNull final char[] buffer, final int position, @NonNull final String text) {
+        int length = Math.min(text.length(), buffer.length - position);
+        text.getChars(0, length, buffer, position);
+        return position + length;
+    }
+
+    /**
+     * Used to append value / 10 with one decimal digit (Ex - 148 -> "14.8").
+     */
+    private static int appendTenths(@NonNull final char[] buffer, final int position, final int tenths) {
+        int value = Math.max(tenths, 0);
+        // Digits are written backwards from the end of the number.
+        int digits = 2;
+        for (int remaining = value / 100; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        int end = position + digits + 1;
+        if (end > buffer.length) {
+            return position;
+        }
+        int index = end - 1;
+        buffer[index--] = (char) ('0' + value % 10);
+        buffer[index--] = '.';
+        value /= 10;
+        do {
+            buffer[index--] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (index >= position);
+        return end;
+    }
+
+    /**
+     * Used to set diagnostics to draw (Debug only).
+     *
+     * @param diagnostics Diagnostics or NULL to disable.
+     */
+    public void setDiagnostics(@Nullable final ScanDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+        invalidate();
+    }
+
+    /**
+     * Used to set idle state.
+     * <p>
+     * 1. While idle, laser animation is stopped.
+     * 2. Once idle is cleared, animation is resumed immediately.
+     *
+     * @param idle TRUE if scanner is idle.
+     */
+    public void setIdle(final boolean idle) {
+        if (this.idle != idle) {
+            this.idle = idle;
+            invalidate();
+        }
+    }
+
+    /**
+     * On Size Changed.
+     * <p>
+     * 1. Screen resolution & view finder depend on orientation, so they are re-calculated on next draw.
+     */
+    @Override
+    protected synchronized void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        screenResolution = null;
+        viewFinderRect = null;
     }
 
     /**
@@ -111,7 +287,13 @@ public class BarcodeScannerOverlayView extends View {
         if (viewFinderRect == null) {
             Point screenResolution = getScreenResolution();
             int width = findDesiredDimensionInRange(screenResolution.x, MIN_FRAME_WIDTH, MAX_FRAME_WIDTH);
-            int height = findDesiredDimensionInRange(screenResolution.y, MIN_FRAME_HEIGHT, MAX_FRAME_HEIGHT);
+            int height;
+            if (screenResolution.x < screenResolution.y) {
+                // Portrait - Keep landscape aspect ratio of view finder.
+                height = Math.max(width * MAX_FRAME_HEIGHT / MAX_FRAME_WIDTH, MIN_FRAME_HEIGHT);
+            } else {
+                height = findDesiredDimensionInRange(screenResolution.y, MIN_FRAME_HEIGHT, MAX_FRAME_HEIGHT);
+            }
 
             int leftOffset = (screenResolution.x - width) / 2;
             int topOffset = (screenResolution.y - height) / 2;
@@ -125,7 +307,7 @@ public class BarcodeScannerOverlayView extends View {
      *
      * @return Screen Resolution in Point (Width & Height).
      */
-    public Point getScreenResolution() {
+    public synchronized Point getScreenResolution() {
         if (screenResolution == null) {
             WindowManager manager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
             Display display = manager.getDefaultDisplay();
@@ -165,7 +347,7 @@ public class BarcodeScannerOverlayView extends View {
      *
      * @return View Finder Rectangle.
      */
-    public Rect getViewFinderRect() {
+    public synchronized Rect getViewFinderRect() {
         return viewFinderRect;
     }
 
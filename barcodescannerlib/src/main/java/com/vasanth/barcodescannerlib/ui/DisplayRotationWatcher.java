@@ -0,0 +1,127 @@
+package com.vasanth.barcodescannerlib.ui;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.hardware.display.DisplayManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.view.Display;
+import android.view.WindowManager;
+
+/**
+ * Display Rotation Watcher.
+ * <p>
+ * 1. Notifies when display rotation changes.
+ * 2. 180 degree rotation (Ex - Landscape to reverse landscape) doesn't cause configuration change, so on API 17+ we listen
+ * to display changes. Below API 17, caller must forward onConfigurationChanged to {@link #checkRotation()}.
+ * 3. Must be used from UI thread.
+ *
+ * @author Vasanth
+ */
+public class DisplayRotationWatcher {
+
+    /**
+     * Listener.
+     */
+    public interface Listener {
+        void onDisplayRotationChanged(int rotation);
+    }
+
+    private final Context context;
+    private final Display display;
+    private final Listener listener;
+    private Object displayListener;
+    private int rotation;
+    private boolean started;
+
+    /**
+     * Constructor.
+     *
+     * @param context  Context.
+     * @param listener Listener to get callback when display rotation changes.
+     */
+    public DisplayRotationWatcher(@NonNull final Context context, @NonNull final Listener listener) {
+        this.context = context.getApplicationContext();
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        this.display = windowManager.getDefaultDisplay();
+        this.listener = listener;
+        this.rotation = display.getRotation();
+    }
+
+    /**
+     * Used to start watching.
+     * <p>
+     * 1. Rotation changed while stopped is taken as current, without notifying listener. So start before (re)starting the camera,
+     * which applies current rotation anyway, rather than after it (i.e which would restart a camera that was just opened).
+     */
+    public void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            registerDisplayListener();
+        }
+        rotation = display.getRotation();
+    }
+
+    public void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            unregisterDisplayListener();
+        }
+    }
+
+    /**
+     * Used to check if display rotation changed & notify listener.
+     */
+    public void checkRotation() {
+        int newRotation = display.getRotation();
+        if (newRotation != rotation) {
+            rotation = newRotation;
+            listener.onDisplayRotationChanged(newRotation);
+        }
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    // PRIVATE METHODS.
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void registerDisplayListener() {
+        DisplayManager.DisplayListener listener = new DisplayManager.DisplayListener() {
+            @Override
+            public void onDisplayAdded(int displayId) {
+            }
+
+            @Override
+            public void onDisplayRemoved(int displayId) {
+            }
+
+            @Override
+            public void onDisplayChanged(int displayId) {
+                if (displayId == display.getDisplayId()) {
+                    checkRotation();
+                }
+            }
+        };
+        DisplayManager displayManager = (DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE);
+        displayManager.registerDisplayListener(listener, new Handler(Looper.getMainLooper()));
+        displayListener = listener;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void unregisterDisplayListener() {
+        if (displayListener != null) {
+            DisplayManager displayManager = (DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE);
+            displayManager.unregisterDisplayListener((DisplayManager.DisplayListener) displayListener);
+            displayListener = null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.vasanth.barcodescannerlib.ui;
+
+/**
+ * View Finder Geometry.
+ * <p>
+ * 1. Responsibility.
+ * 1.a. Maps detected barcode coordinates (camera preview space) to screen space, where they are checked against view finder
+ * (Refer - AcceptancePolicies).
+ * 1.b. Scale factors & laser line are precomputed in {@link #update}, which is a no-op unless screen, preview or view finder changed
+ * (i.e once per orientation), so per frame mapping is just a few multiplications.
+ * <p>
+ * 2. Orientation.
+ * 2.a. CameraSource rotates frame metadata to match display rotation, so detections are reported in upright preview space.
+ * 2.b. Preview size is always reported in sensor (landscape) orientation, so it is swapped when screen is portrait.
+ * 2.c. Reverse landscape / portrait need no special handling, as detections are already upright.
+ * <p>
+ * 3. Notes.
+ * 3.a. Works on plain int's (no Rect / Point), so it can be unit tested on JVM & doesn't allocate per frame.
+ * 3.b. Not thread safe.
+ *
+ * @author Vasanth
+ */
+public class ViewFinderGeometry {
+
+    private int screenWidth;
+    private int screenHeight;
+    private int previewWidth;
+    private int previewHeight;
+    private int viewFinderLeft;
+    private int viewFinderTop;
+    private int viewFinderRight;
+    private int viewFinderBottom;
+
+    private boolean valid;
+    private double scaleX;
+    private double scaleY;
+    private int laserLineY;
+
+    /**
+     * Used to update the geometry, recomputed only if any of the input changed.
+     *
+     * @param screenWidth      Screen width.
+     * @param screenHeight     Screen height.
+     * @param previewWidth     Camera preview width (As reported by camera, i.e sensor orientation).
+     * @param previewHeight    Camera preview height (As reported by camera, i.e sensor orientation).
+     * @param viewFinderLeft   View finder left (Screen space).
+     * @param viewFinderTop    View finder top (Screen space).
+     * @param viewFinderRight  View finder right (Screen space).
+     * @param viewFinderBottom View finder bottom (Screen space).
+     * @return TRUE if geometry is recomputed.
+     */
+    public boolean update(final int screenWidth, final int screenHeight, final int previewWidth, final int previewHeight,
+                          final int viewFinderLeft, final int viewFinderTop, final int viewFinderRight, final int viewFinderBottom) {
+        if (valid && this.screenWidth == screenWidth && this.screenHeight == screenHeight
+                && this.previewWidth == previewWidth && this.previewHeight == previewHeight
+                && this.viewFinderLeft == viewFinderLeft && this.viewFinderTop == viewFinderTop
+                && this.viewFinderRight == viewFinderRight && this.viewFinderBottom == viewFinderBottom) {
+            return false;
+        }
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.previewWidth = previewWidth;
+        this.previewHeight = previewHeight;
+        this.viewFinderLeft = viewFinderLeft;
+        this.viewFinderTop = viewFinderTop;
+        this.viewFinderRight = viewFinderRight;
+        this.viewFinderBottom = viewFinderBottom;
+
+        valid = screenWidth > 0 && screenHeight > 0 && previewWidth > 0 && previewHeight > 0;
+        if (valid) {
+            // Upright preview size.
+            boolean isScreenPortrait = screenWidth < screenHeight;
+            boolean isPreviewPortrait = previewWidth < previewHeight;
+            int uprightPreviewWidth = isScreenPortrait == isPreviewPortrait ? previewWidth : previewHeight;
+            int uprightPreviewHeight = isScreenPortrait == isPreviewPortrait ? previewHeight : previewWidth;
+
+            scaleX = (double) screenWidth / (double) uprightPreviewWidth;
+            scaleY = (double) screenHeight / (double) uprightPreviewHeight;
+            laserLineY = (viewFinderBottom - viewFinderTop) / 2 + viewFinderTop;
+        }
+        return true;
+    }
+
+    /**
+     * @param x X in preview space.
+     * @return X in screen space.
+     */
+    public int toScreenX(final int x) {
+        return (int) (x * scaleX);
+    }
+
+    /**
+     * @param y Y in preview space.
+     * @return Y in screen space.
+     */
+    public int toScreenY(final int y) {
+        return (int) (y * scaleY);
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    public int getLaserLineY() {
+        return laserLineY;
+    }
+}
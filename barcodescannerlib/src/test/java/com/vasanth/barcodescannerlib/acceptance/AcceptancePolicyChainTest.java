@@ -0,0 +1,122 @@
+package com.vasanth.barcodescannerlib.acceptance;
+
+import android.support.annotation.NonNull;
+
+import com.google.android.gms.vision.barcode.Barcode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link AcceptancePolicyChain}.
+ */
+public class AcceptancePolicyChainTest {
+
+    private BarcodeCandidate candidate;
+    private AcceptanceContext context;
+
+    @Before
+    public void setUp() {
+        candidate = new BarcodeCandidate();
+        context = new AcceptanceContext();
+        // View finder 100..500 x 100..300, laser line 200.
+        context.set(100, 100, 500, 300, 200, null);
+    }
+
+    @Test
+    public void defaultChain_acceptsBarcodeOnLaserLine() {
+        candidate.set(150, 150, 450, 250, 1);
+
+        assertEquals(AcceptancePolicy.RESULT_ACCEPTED, AcceptancePolicyChain.createDefault().evaluate(candidate, context));
+    }
+
+    @Test
+    public void defaultChain_reportsFirstRejection() {
+        AcceptancePolicyChain chain = AcceptancePolicyChain.createDefault();
+
+        candidate.set(50, 150, 450, 250, 1);
+        assertEquals(AcceptancePolicy.REASON_OUTSIDE_VIEW_FINDER, chain.evaluate(candidate, context));
+        candidate.set(150, 110, 450, 190, 1);
+        assertEquals(AcceptancePolicy.REASON_OFF_LASER_LINE, chain.evaluate(candidate, context));
+    }
+
+    @Test
+    public void cheapPolicyRejects_framePolicyIsNotEvaluated() {
+        CountingPolicy framePolicy = new CountingPolicy(AcceptancePolicy.COST_FRAME_SCAN);
+        // Given out of cost order.
+        AcceptancePolicyChain chain = new AcceptancePolicyChain(framePolicy, AcceptancePolicies.formats(2));
+
+        assertSame(framePolicy, chain.getPolicy(1));
+        candidate.set(150, 150, 450, 250, 1);
+        assertEquals(AcceptancePolicy.REASON_FORMAT, chain.evaluate(candidate, context));
+        assertEquals(0, framePolicy.calls);
+    }
+
+    @Test
+    public void formats_allFormatsAcceptsAnyFormat() {
+        AcceptancePolicyChain chain = new AcceptancePolicyChain(AcceptancePolicies.formats(Barcode.ALL_FORMATS));
+
+        candidate.set(150, 150, 450, 250, Barcode.QR_CODE);
+        assertEquals(AcceptancePolicy.RESULT_ACCEPTED, chain.evaluate(candidate, context));
+        candidate.set(150, 150, 450, 250, Barcode.EAN_13);
+        assertEquals(AcceptancePolicy.RESULT_ACCEPTED, chain.evaluate(candidate, context));
+    }
+
+    @Test
+    public void largest_comparesAgainstFrameCandidates() {
+        context.set(100, 100, 500, 300, 200, new AcceptanceContext.FrameCandidateSource() {
+            @Override
+            public int fill(@NonNull BarcodeCandidate[] candidates) {
+                candidates[0].set(150, 150, 250, 250, 1);
+                candidates[1].set(150, 150, 450, 250, 1);
+                return 2;
+            }
+        });
+        AcceptancePolicyChain chain = new AcceptancePolicyChain(AcceptancePolicies.largest());
+
+        candidate.set(150, 150, 250, 250, 1);
+        assertEquals(AcceptancePolicy.REASON_NOT_LARGEST, chain.evaluate(candidate, context));
+        candidate.set(150, 150, 450, 250, 1);
+        assertEquals(AcceptancePolicy.RESULT_ACCEPTED, chain.evaluate(candidate, context));
+    }
+
+    @Test
+    public void intersectsViewFinder_acceptsPartiallyInsideBarcode() {
+        AcceptancePolicyChain chain = new AcceptancePolicyChain(AcceptancePolicies.intersectsViewFinder(50));
+
+        // 60% inside.
+        candidate.set(340, 150, 540, 250, 1);
+        assertEquals(AcceptancePolicy.RESULT_ACCEPTED, chain.evaluate(candidate, context));
+        // 20% inside.
+        candidate.set(460, 150, 660, 250, 1);
+        assertEquals(AcceptancePolicy.REASON_NOT_INTERSECTING_VIEW_FINDER, chain.evaluate(candidate, context));
+    }
+
+    private static class CountingPolicy implements AcceptancePolicy {
+
+        private final int cost;
+        private int calls;
+
+        CountingPolicy(final int cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public boolean accept(@NonNull BarcodeCandidate candidate, @NonNull AcceptanceContext context) {
+            calls++;
+            return true;
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+
+        @Override
+        public int getRejectionReason() {
+            return REASON_CUSTOM;
+        }
+    }
+}
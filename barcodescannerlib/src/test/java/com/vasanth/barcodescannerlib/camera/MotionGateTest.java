@@ -0,0 +1,97 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link MotionGate}, fed with synthetic luminance frames.
+ */
+public class MotionGateTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+
+    private final List<Boolean> idleChanges = new ArrayList<>();
+    private MotionGate motionGate;
+
+    @Before
+    public void setUp() {
+        motionGate = new MotionGate(new MotionGate.Listener() {
+            @Override
+            public void onIdleChanged(boolean idle) {
+                idleChanges.add(idle);
+            }
+        });
+    }
+
+    @Test
+    public void stillScene_goesIdleAndThrottlesDetection() {
+        ByteBuffer frame = frame(100);
+        long now = 0L;
+        for (; now < MotionGate.IDLE_TIMEOUT; now += 100L) {
+            assertTrue(motionGate.shouldDetect(frame, WIDTH, HEIGHT, now));
+        }
+
+        motionGate.shouldDetect(frame, WIDTH, HEIGHT, now);
+        assertTrue(motionGate.isIdle());
+
+        int detections = 0;
+        long idleStart = now;
+        for (now += 100L; now < idleStart + 2 * MotionGate.IDLE_DETECTION_INTERVAL; now += 100L) {
+            if (motionGate.shouldDetect(frame, WIDTH, HEIGHT, now)) {
+                detections++;
+            }
+        }
+        assertEquals(2, detections);
+        assertEquals(Arrays.asList(true), idleChanges);
+    }
+
+    @Test
+    public void motion_leavesIdleImmediately() {
+        ByteBuffer still = frame(100);
+        long now = 0L;
+        for (; now <= MotionGate.IDLE_TIMEOUT; now += 100L) {
+            motionGate.shouldDetect(still, WIDTH, HEIGHT, now);
+        }
+        assertTrue(motionGate.isIdle());
+
+        assertTrue(motionGate.shouldDetect(frame(160), WIDTH, HEIGHT, now + 10L));
+        assertFalse(motionGate.isIdle());
+        assertEquals(Arrays.asList(true, false), idleChanges);
+    }
+
+    @Test
+    public void sensorNoise_isNotMotion() {
+        long now = 0L;
+        for (int i = 0; now <= MotionGate.IDLE_TIMEOUT; i++, now += 100L) {
+            motionGate.shouldDetect(frame(100 + (i % 2) * 3), WIDTH, HEIGHT, now);
+        }
+        assertTrue(motionGate.isIdle());
+    }
+
+    @Test
+    public void reset_countsNextFrameAsMotion() {
+        ByteBuffer still = frame(100);
+        long now = 0L;
+        for (; now <= MotionGate.IDLE_TIMEOUT; now += 100L) {
+            motionGate.shouldDetect(still, WIDTH, HEIGHT, now);
+        }
+        motionGate.reset();
+
+        assertTrue(motionGate.shouldDetect(still, WIDTH, HEIGHT, now + 10L));
+        assertFalse(motionGate.isIdle());
+    }
+
+    private static ByteBuffer frame(final int luminance) {
+        byte[] data = new byte[WIDTH * HEIGHT * 3 / 2];
+        Arrays.fill(data, (byte) luminance);
+        return ByteBuffer.wrap(data);
+    }
+}
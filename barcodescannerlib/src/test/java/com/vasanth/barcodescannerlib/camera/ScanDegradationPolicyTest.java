@@ -0,0 +1,106 @@
+package com.vasanth.barcodescannerlib.camera;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link ScanDegradationPolicy}, fed with synthetic pressure events.
+ */
+public class ScanDegradationPolicyTest {
+
+    private final List<Integer> levelChanges = new ArrayList<>();
+    private ScanDegradationPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new ScanDegradationPolicy(new ScanDegradationPolicy.Listener() {
+            @Override
+            public void onDegradationLevelChanged(int level) {
+                levelChanges.add(level);
+            }
+        });
+    }
+
+    @Test
+    public void memoryPressure_degradesAndRecoversStepByStep() {
+        policy.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL, 0L);
+        assertEquals(ScanDegradationPolicy.LEVEL_MINIMAL, policy.getLevel());
+
+        policy.onTick(ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW - 1);
+        assertEquals(ScanDegradationPolicy.LEVEL_MINIMAL, policy.getLevel());
+
+        policy.onTick(ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW);
+        assertEquals(ScanDegradationPolicy.LEVEL_REDUCED, policy.getLevel());
+
+        policy.onTick(2 * ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW);
+        assertEquals(ScanDegradationPolicy.LEVEL_NORMAL, policy.getLevel());
+
+        assertEquals(3, levelChanges.size());
+    }
+
+    @Test
+    public void restoredLevel_recoversWithoutNewPressure() {
+        // Ex - Activity re-created while retained controller is degraded.
+        policy.restoreLevel(ScanDegradationPolicy.LEVEL_MINIMAL, 1000L);
+        assertEquals(ScanDegradationPolicy.LEVEL_MINIMAL, policy.getLevel());
+        assertTrue(levelChanges.isEmpty());
+
+        policy.onTemperatureChanged(300, 1000L);
+        policy.onTick(1000L + ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW);
+        policy.onTick(1000L + 2 * ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW);
+
+        assertEquals(ScanDegradationPolicy.LEVEL_NORMAL, policy.getLevel());
+        assertEquals(2, levelChanges.size());
+    }
+
+    @Test
+    public void memoryPressure_newEventRestartsRecoveryWindow() {
+        policy.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW, 0L);
+        policy.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW, 20000L);
+
+        policy.onTick(ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW);
+        assertEquals(ScanDegradationPolicy.LEVEL_REDUCED, policy.getLevel());
+    }
+
+    @Test
+    public void memoryPressure_uiHiddenIsIgnored() {
+        policy.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN, 0L);
+        policy.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE, 0L);
+
+        assertEquals(ScanDegradationPolicy.LEVEL_NORMAL, policy.getLevel());
+        assertTrue(levelChanges.isEmpty());
+    }
+
+    @Test
+    public void temperature_recoversOnlyBelowHysteresis() {
+        policy.onTemperatureChanged(ScanDegradationPolicy.TEMPERATURE_MINIMAL, 0L);
+        assertEquals(ScanDegradationPolicy.LEVEL_MINIMAL, policy.getLevel());
+
+        policy.onTemperatureChanged(ScanDegradationPolicy.TEMPERATURE_MINIMAL - 1, 0L);
+        assertEquals(ScanDegradationPolicy.LEVEL_MINIMAL, policy.getLevel());
+
+        policy.onTemperatureChanged(ScanDegradationPolicy.TEMPERATURE_MINIMAL - ScanDegradationPolicy.THERMAL_HYSTERESIS - 1, 0L);
+        assertEquals(ScanDegradationPolicy.LEVEL_REDUCED, policy.getLevel());
+
+        policy.onTemperatureChanged(ScanDegradationPolicy.TEMPERATURE_REDUCED - ScanDegradationPolicy.THERMAL_HYSTERESIS - 1, 0L);
+        assertEquals(ScanDegradationPolicy.LEVEL_NORMAL, policy.getLevel());
+    }
+
+    @Test
+    public void level_isWorseOfMemoryAndThermal() {
+        policy.onTemperatureChanged(ScanDegradationPolicy.TEMPERATURE_REDUCED, 0L);
+        policy.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL, 0L);
+        assertEquals(ScanDegradationPolicy.LEVEL_MINIMAL, policy.getLevel());
+
+        policy.onTick(2 * ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW);
+        policy.onTick(4 * ScanDegradationPolicy.MEMORY_RECOVERY_WINDOW);
+        assertEquals(ScanDegradationPolicy.LEVEL_REDUCED, policy.getLevel());
+    }
+}
@@ -0,0 +1,122 @@
+package com.vasanth.barcodescannerlib.diagnostics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link ScanDiagnostics}.
+ */
+public class ScanDiagnosticsTest {
+
+    private static final int SCREEN_WIDTH = 1600;
+    private static final int SCREEN_HEIGHT = 900;
+
+    private ScanDiagnostics diagnostics;
+    private final int[] rects = new int[ScanDiagnostics.MAX_REJECTIONS * 4];
+    private final int[] reasons = new int[ScanDiagnostics.MAX_REJECTIONS];
+    private final int[] heatmap = new int[ScanDiagnostics.HEATMAP_COLUMNS * ScanDiagnostics.HEATMAP_ROWS];
+
+    @Before
+    public void setUp() {
+        diagnostics = new ScanDiagnostics();
+    }
+
+    @Test
+    public void rejections_ringBufferKeepsLatestOnWraparound() {
+        int total = ScanDiagnostics.MAX_REJECTIONS + 3;
+        for (int i = 0; i < total; i++) {
+            // Reason is the insertion order, so we can see which entries survived.
+            diagnostics.onBarcodeChecked(i, 0, i + 10, 10, false, i, SCREEN_WIDTH, SCREEN_HEIGHT, 1000L + i);
+        }
+
+        int count = diagnostics.copyRecentRejections(rects, reasons, 1000L + total);
+
+        assertEquals(ScanDiagnostics.MAX_REJECTIONS, count);
+        boolean[] seen = new boolean[total];
+        for (int i = 0; i < count; i++) {
+            seen[reasons[i]] = true;
+            assertEquals(reasons[i], rects[i * 4]);
+        }
+        for (int i = 0; i < total; i++) {
+            assertEquals("Entry " + i, i >= total - ScanDiagnostics.MAX_REJECTIONS, seen[i]);
+        }
+    }
+
+    @Test
+    public void rejections_expireAndAcceptedAreNotRecorded() {
+        diagnostics.onBarcodeChecked(0, 0, 10, 10, false, 2, SCREEN_WIDTH, SCREEN_HEIGHT, 1000L);
+        diagnostics.onBarcodeChecked(0, 0, 10, 10, true, 0, SCREEN_WIDTH, SCREEN_HEIGHT, 1500L);
+
+        assertEquals(1, diagnostics.copyRecentRejections(rects, reasons, 1000L + ScanDiagnostics.REJECTION_DISPLAY_TIME));
+        assertEquals(0, diagnostics.copyRecentRejections(rects, reasons, 1001L + ScanDiagnostics.REJECTION_DISPLAY_TIME));
+    }
+
+    @Test
+    public void heatmap_binsCentersAndClampsOffScreen() {
+        // Center (50, 50) -> first cell.
+        diagnostics.onBarcodeChecked(0, 0, 100, 100, true, 0, SCREEN_WIDTH, SCREEN_HEIGHT, 1L);
+        // Center beyond bottom right -> clamped to last cell.
+        diagnostics.onBarcodeChecked(SCREEN_WIDTH, SCREEN_HEIGHT, SCREEN_WIDTH + 400, SCREEN_HEIGHT + 400, false, 2, SCREEN_WIDTH, SCREEN_HEIGHT, 2L);
+        // Center above top left -> clamped to first cell.
+        diagnostics.onBarcodeChecked(-400, -400, -200, -200, false, 2, SCREEN_WIDTH, SCREEN_HEIGHT, 3L);
+        // Unknown screen size is not binned.
+        diagnostics.onBarcodeChecked(0, 0, 100, 100, true, 0, 0, 0, 4L);
+
+        int max = diagnostics.copyHeatmap(heatmap, 4L);
+
+        assertEquals(2, max);
+        assertEquals(2, heatmap[0]);
+        assertEquals(1, heatmap[heatmap.length - 1]);
+        int total = 0;
+        for (int count : heatmap) {
+            total += count;
+        }
+        assertEquals(3, total);
+    }
+
+    @Test
+    public void heatmap_halvesOncePerDecayTime() {
+        long start = 1000L;
+        // 4 early detections in first cell.
+        for (int i = 0; i < 4; i++) {
+            diagnostics.onBarcodeChecked(0, 0, 100, 100, true, 0, SCREEN_WIDTH, SCREEN_HEIGHT, start);
+        }
+
+        assertEquals(4, diagnostics.copyHeatmap(heatmap, start + ScanDiagnostics.HEATMAP_DECAY_TIME - 1));
+        assertEquals(2, diagnostics.copyHeatmap(heatmap, start + ScanDiagnostics.HEATMAP_DECAY_TIME));
+        assertEquals(2, heatmap[0]);
+
+        // One recent detection in last cell now outweighs the faded early ones.
+        long now = start + 2 * ScanDiagnostics.HEATMAP_DECAY_TIME;
+        diagnostics.onBarcodeChecked(SCREEN_WIDTH - 100, SCREEN_HEIGHT - 100, SCREEN_WIDTH, SCREEN_HEIGHT, true, 0, SCREEN_WIDTH, SCREEN_HEIGHT, now);
+        assertEquals(1, diagnostics.copyHeatmap(heatmap, now));
+        assertEquals(1, heatmap[0]);
+        assertEquals(1, heatmap[heatmap.length - 1]);
+
+        // Long gap without detections clears it.
+        assertEquals(0, diagnostics.copyHeatmap(heatmap, now + 10 * ScanDiagnostics.HEATMAP_DECAY_TIME));
+        assertEquals(0, heatmap[0]);
+        assertEquals(0, heatmap[heatmap.length - 1]);
+    }
+
+    @Test
+    public void decodeStats_movingAverage() {
+        long millis = 1000000L;
+        // Steady 100 ms interval & 20 ms latency.
+        for (int i = 1; i <= 20; i++) {
+            diagnostics.onFrameDecoded(i * 100 * millis, i * 100 * millis + 20 * millis);
+        }
+        assertEquals(10f, diagnostics.getDecodeFps(), 0.01f);
+        assertEquals(20f, diagnostics.getDecodeLatencyMillis(), 0.01f);
+
+        // One slow frame moves the average by the smoothing weight (0.1) only.
+        diagnostics.onFrameDecoded(2100 * millis, 2100 * millis + 120 * millis);
+        assertEquals(30f, diagnostics.getDecodeLatencyMillis(), 0.01f);
+
+        diagnostics.reset();
+        assertEquals(0f, diagnostics.getDecodeFps(), 0f);
+        assertEquals(0f, diagnostics.getDecodeLatencyMillis(), 0f);
+    }
+}
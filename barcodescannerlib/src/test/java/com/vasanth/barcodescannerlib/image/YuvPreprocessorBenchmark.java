@@ -0,0 +1,87 @@
+package com.vasanth.barcodescannerlib.image;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for {@link YuvPreprocessor}, on synthetic NV21 frames of camera preview sizes.
+ * <p>
+ * 1. Run using main method (Ex - From Android Studio, as a JVM application on test classpath).
+ * 2. Measures preprocessing cost only, decode success & time with preprocessing on vs off is compared on device
+ * (Refer - PreprocessingDecodeTest in androidTest).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YuvPreprocessorBenchmark {
+
+    @Param({"800x480", "1280x720", "1600x1024"})
+    public String frameSize;
+
+    private YuvPreprocessor preprocessor;
+    private ByteBufferPool bufferPool;
+    private byte[] src;
+    private int width;
+    private int height;
+
+    @Setup
+    public void setUp() {
+        String[] size = frameSize.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+        preprocessor = new YuvPreprocessor();
+        bufferPool = new ByteBufferPool(2);
+        src = new byte[YuvPreprocessor.getNv21Size(width, height)];
+        new Random(42).nextBytes(src);
+    }
+
+    @Benchmark
+    public byte[] stretchContrast() {
+        ByteBuffer dst = bufferPool.acquire(src.length);
+        preprocessor.stretchContrast(src, dst.array(), width, height);
+        bufferPool.release(dst);
+        return dst.array();
+    }
+
+    @Benchmark
+    public byte[] adaptiveThreshold() {
+        ByteBuffer dst = bufferPool.acquire(src.length);
+        preprocessor.adaptiveThreshold(src, dst.array(), width, height);
+        bufferPool.release(dst);
+        return dst.array();
+    }
+
+    @Benchmark
+    public byte[] rotate90() {
+        ByteBuffer dst = bufferPool.acquire(src.length);
+        preprocessor.rotate90(src, dst.array(), width, height);
+        bufferPool.release(dst);
+        return dst.array();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(YuvPreprocessorBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
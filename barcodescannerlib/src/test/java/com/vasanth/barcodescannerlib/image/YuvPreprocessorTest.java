@@ -0,0 +1,140 @@
+package com.vasanth.barcodescannerlib.image;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link YuvPreprocessor} & {@link ByteBufferPool}, on synthetic NV21 frames.
+ */
+public class YuvPreprocessorTest {
+
+    private final YuvPreprocessor preprocessor = new YuvPreprocessor();
+
+    @Test
+    public void rotate90_movesPixelsClockwise() {
+        // 4 x 2 frame, Y = 0..7, VU pairs = (100, 101), (102, 103).
+        byte[] src = {
+                0, 1, 2, 3,
+                4, 5, 6, 7,
+                100, 101, 102, 103};
+        byte[] dst = new byte[src.length];
+
+        preprocessor.rotate90(src, dst, 4, 2);
+
+        // 2 x 4 frame.
+        byte[] expected = {
+                4, 0,
+                5, 1,
+                6, 2,
+                7, 3,
+                100, 101,
+                102, 103};
+        assertArrayEquals(expected, dst);
+    }
+
+    @Test
+    public void rotate90_fourTimesIsIdentity() {
+        int width = 16;
+        int height = 10;
+        byte[] frame = randomFrame(width, height, 1);
+        byte[] a = frame.clone();
+        byte[] b = new byte[frame.length];
+
+        preprocessor.rotate90(a, b, width, height);
+        preprocessor.rotate90(b, a, height, width);
+        preprocessor.rotate90(a, b, width, height);
+        preprocessor.rotate90(b, a, height, width);
+
+        assertArrayEquals(frame, a);
+    }
+
+    @Test
+    public void stretchContrast_mapsRangeToFull() {
+        int width = 10;
+        int height = 10;
+        byte[] src = new byte[YuvPreprocessor.getNv21Size(width, height)];
+        for (int i = 0; i < width * height; i++) {
+            src[i] = (byte) (100 + (i % 2) * 20);
+        }
+        byte[] dst = new byte[src.length];
+
+        preprocessor.stretchContrast(src, dst, width, height);
+
+        assertEquals(0, dst[0] & 0xFF);
+        assertEquals(255, dst[1] & 0xFF);
+        assertEquals(128, dst[width * height] & 0xFF);
+    }
+
+    @Test
+    public void stretchContrast_flatImageIsUnchanged() {
+        int width = 4;
+        int height = 4;
+        byte[] src = new byte[YuvPreprocessor.getNv21Size(width, height)];
+        java.util.Arrays.fill(src, 0, width * height, (byte) 77);
+        byte[] dst = new byte[src.length];
+
+        preprocessor.stretchContrast(src, dst, width, height);
+
+        assertEquals(77, dst[0] & 0xFF);
+        assertEquals(77, dst[width * height - 1] & 0xFF);
+    }
+
+    @Test
+    public void adaptiveThreshold_binarizesDarkBarsUnderGradient() {
+        int width = 64;
+        int height = 8;
+        byte[] src = new byte[YuvPreprocessor.getNv21Size(width, height)];
+        // Bright-to-dark lighting gradient, with alternating 4 column wide dark bars.
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int lighting = 200 - x * 2;
+                boolean isBar = (x / 4) % 2 == 0;
+                src[y * width + x] = (byte) (isBar ? lighting - 60 : lighting);
+            }
+        }
+        byte[] dst = new byte[src.length];
+
+        preprocessor.adaptiveThreshold(src, dst, width, height);
+
+        for (int x = 0; x < width; x++) {
+            boolean isBar = (x / 4) % 2 == 0;
+            assertEquals("Column " + x, isBar ? 0 : 255, dst[4 * width + x] & 0xFF);
+        }
+    }
+
+    @Test
+    public void extractLuminance_copiesYPlane() {
+        byte[] frame = randomFrame(8, 4, 2);
+        byte[] luminance = new byte[32];
+
+        preprocessor.extractLuminance(frame, luminance, 8, 4);
+
+        for (int i = 0; i < luminance.length; i++) {
+            assertEquals(frame[i], luminance[i]);
+        }
+    }
+
+    @Test
+    public void bufferPool_reusesReleasedBuffer() {
+        ByteBufferPool pool = new ByteBufferPool(2);
+        ByteBuffer first = pool.acquire(100);
+        pool.release(first);
+
+        assertSame(first, pool.acquire(100));
+        pool.release(first);
+
+        ByteBuffer resized = pool.acquire(50);
+        assertEquals(50, resized.capacity());
+        assertEquals(0, pool.size());
+    }
+
+    private static byte[] randomFrame(final int width, final int height, final long seed) {
+        byte[] frame = new byte[YuvPreprocessor.getNv21Size(width, height)];
+        new Random(seed).nextBytes(frame);
+        return frame;
+    }
+}
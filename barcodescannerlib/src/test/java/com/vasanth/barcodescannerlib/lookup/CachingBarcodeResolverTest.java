@@ -0,0 +1,248 @@
+package com.vasanth.barcodescannerlib.lookup;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link CachingBarcodeResolver}, using an in-memory catalogue.
+ */
+public class CachingBarcodeResolverTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void resolve_hitsCatalogueOnlyOnce() throws Exception {
+        InMemoryCatalogue catalogue = new InMemoryCatalogue();
+        catalogue.records.put("4006381333931", "Pen");
+        CachingBarcodeResolver<String> resolver = new CachingBarcodeResolver.Builder<>(catalogue).build();
+
+        assertEquals("Pen", resolver.resolve("4006381333931"));
+        assertEquals("Pen", resolver.resolve("4006381333931"));
+        assertEquals(1, catalogue.lookups);
+        resolver.shutdown();
+    }
+
+    @Test
+    public void resolve_unknownCode_returnsNull() throws Exception {
+        CachingBarcodeResolver<String> resolver = new CachingBarcodeResolver.Builder<>(new InMemoryCatalogue()).build();
+
+        assertNull(resolver.resolve("unknown"));
+        resolver.shutdown();
+    }
+
+    @Test
+    public void prefetch_makesRecordReadyForGet() throws Exception {
+        InMemoryCatalogue catalogue = new InMemoryCatalogue();
+        catalogue.records.put("A", "Apple");
+        CachingBarcodeResolver<String> resolver = new CachingBarcodeResolver.Builder<>(catalogue).build();
+
+        resolver.prefetch("A").get();
+
+        assertEquals("Apple", resolver.get("A", 0L));
+        assertEquals(1, catalogue.lookups);
+        resolver.shutdown();
+    }
+
+    @Test
+    public void get_callback_deliversRecordWithoutBlocking() throws Exception {
+        InMemoryCatalogue catalogue = new InMemoryCatalogue();
+        catalogue.records.put("A", "Apple");
+        CachingBarcodeResolver<String> resolver = new CachingBarcodeResolver.Builder<>(catalogue).build();
+        final AtomicReference<String> resolved = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        resolver.get("A", new CachingBarcodeResolver.Callback<String>() {
+            @Override
+            public void onRecordResolved(String rawValue, String record) {
+                resolved.set(record);
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals("Apple", resolved.get());
+        resolver.shutdown();
+    }
+
+    @Test
+    public void recentCodes_onlyRemembersScannedCodes() throws Exception {
+        InMemoryCatalogue catalogue = new InMemoryCatalogue();
+        catalogue.records.put("A", "Apple");
+        catalogue.records.put("B", "Banana");
+        CachingBarcodeResolver<String> resolver = new CachingBarcodeResolver.Builder<>(catalogue).build();
+
+        // Detected, but never accepted.
+        resolver.prefetch("A").get();
+        resolver.resolve("B");
+        assertTrue(resolver.getRecentCodes().isEmpty());
+
+        assertEquals("Banana", resolver.get("B", 1000L));
+        assertEquals(Collections.singletonList("B"), resolver.getRecentCodes());
+        resolver.shutdown();
+    }
+
+    @Test
+    public void get_catalogueFailure_returnsNull() throws Exception {
+        InMemoryCatalogue catalogue = new InMemoryCatalogue();
+        catalogue.failing = true;
+        CachingBarcodeResolver<String> resolver = new CachingBarcodeResolver.Builder<>(catalogue).build();
+
+        assertNull(resolver.get("A", 1000L));
+        resolver.shutdown();
+    }
+
+    @Test
+    public void memoryCache_evictsLeastRecentlyUsed() throws Exception {
+        LruRecordCache<String> cache = new LruRecordCache<>(2);
+        cache.put("A", "1");
+        cache.put("B", "2");
+        cache.get("A");
+        cache.put("C", "3");
+
+        assertEquals("1", cache.get("A"));
+        assertNull(cache.get("B"));
+        assertEquals("3", cache.get("C"));
+    }
+
+    @Test
+    public void diskCache_survivesNewResolverInstance() throws Exception {
+        InMemoryCatalogue catalogue = new InMemoryCatalogue();
+        catalogue.records.put("B", "Banana");
+        CachingBarcodeResolver<String> first = new CachingBarcodeResolver.Builder<>(catalogue)
+                .setDiskCache(newDiskCache())
+                .build();
+        assertEquals("Banana", first.resolve("B"));
+        first.shutdown();
+
+        CachingBarcodeResolver<String> second = new CachingBarcodeResolver.Builder<>(catalogue)
+                .setDiskCache(newDiskCache())
+                .build();
+        assertEquals("Banana", second.resolve("B"));
+        assertEquals(1, catalogue.lookups);
+
+        List<String> recentCodes = second.getRecentCodes();
+        assertEquals("B", recentCodes.get(0));
+        second.shutdown();
+    }
+
+    @Test
+    public void prefetch_directExecutor_failedLookupIsRetried() throws Exception {
+        InMemoryCatalogue catalogue = new InMemoryCatalogue();
+        catalogue.records.put("A", "Apple");
+        catalogue.failing = true;
+        CachingBarcodeResolver<String> resolver = new CachingBarcodeResolver.Builder<>(catalogue)
+                .setExecutor(new DirectExecutorService())
+                .build();
+
+        assertNull(resolver.get("A", 0L));
+        catalogue.failing = false;
+
+        assertEquals("Apple", resolver.get("A", 0L));
+        assertEquals(2, catalogue.lookups);
+    }
+
+    @Test
+    public void diskCache_storesLongRawValue() throws Exception {
+        // Longer than a file name can be, if raw value were used as file name.
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        String rawValue = builder.toString();
+        DiskRecordCache<String> diskCache = newDiskCache();
+
+        diskCache.put(rawValue, "Long");
+
+        assertEquals("Long", newDiskCache().get(rawValue));
+        assertEquals(rawValue, newDiskCache().getRecentKeys(1).get(0));
+    }
+
+    private DiskRecordCache<String> newDiskCache() {
+        return new DiskRecordCache<>(temporaryFolder.getRoot(), new RecordCodec<String>() {
+            @Override
+            public byte[] encode(String record) {
+                return record.getBytes(UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) throws IOException {
+                return new String(bytes, UTF_8);
+            }
+        }, 10);
+    }
+
+    /**
+     * Runs tasks on the calling thread.
+     */
+    private static class DirectExecutorService extends AbstractExecutorService {
+
+        private boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+
+    /**
+     * In-memory stand-in for the product catalogue.
+     */
+    private static class InMemoryCatalogue implements BarcodeResolver<String> {
+
+        final Map<String, String> records = new HashMap<>();
+        volatile int lookups;
+        volatile boolean failing;
+
+        @Override
+        public String resolve(String rawValue) throws IOException {
+            lookups++;
+            if (failing) {
+                throw new IOException("Catalogue not reachable");
+            }
+            return records.get(rawValue);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.vasanth.barcodescannerlib.service;
+
+import android.Manifest;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+
+import com.google.android.gms.vision.barcode.Barcode;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowApplication;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Robolectric test for {@link BarcodeScannerService} & {@link ScanResultBatch}.
+ * <p>
+ * Camera is replaced by {@link TestService}, barcode's are published directly.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BarcodeScannerServiceTest {
+
+    private TestService service;
+    private Messenger serviceMessenger;
+
+    @Before
+    public void setUp() {
+        ShadowApplication.getInstance().grantPermissions(Manifest.permission.CAMERA);
+        service = Robolectric.buildService(TestService.class).create().get();
+        serviceMessenger = new Messenger(service.onBind(new Intent()));
+    }
+
+    @Test
+    public void subscribe_startsScanning() throws RemoteException {
+        TestClient client = new TestClient();
+
+        client.subscribe(Barcode.ALL_FORMATS);
+
+        assertEquals(1, service.getSubscriberCount());
+        assertEquals(1, service.startCount);
+    }
+
+    @Test
+    public void scanning_runsInForeground() throws RemoteException {
+        ShadowService shadowService = Shadows.shadowOf(service);
+        TestClient client = new TestClient();
+
+        client.subscribe(Barcode.ALL_FORMATS);
+        assertNotNull(shadowService.getLastForegroundNotification());
+        assertFalse(shadowService.isForegroundStopped());
+
+        client.unsubscribe();
+        ShadowLooper.idleMainLooper(BarcodeScannerService.CAMERA_LINGER);
+        assertEquals(1, service.stopCount);
+        assertTrue(shadowService.isForegroundStopped());
+    }
+
+    @Test
+    public void noCameraPermission_reportsStateWithoutStarting() throws RemoteException {
+        ShadowApplication.getInstance().denyPermissions(Manifest.permission.CAMERA);
+        TestClient client = new TestClient();
+
+        client.subscribe(Barcode.ALL_FORMATS);
+
+        assertEquals(0, service.startCount);
+        assertNull(Shadows.shadowOf(service).getLastForegroundNotification());
+        assertEquals(1, client.states.size());
+        assertEquals(BarcodeScannerService.STATE_NO_CAMERA_PERMISSION, (int) client.states.get(0));
+    }
+
+    @Test
+    public void results_areBatchedPerIntervalAndFilteredByFormat() throws RemoteException {
+        TestClient qrClient = new TestClient();
+        TestClient allClient = new TestClient();
+        qrClient.subscribe(Barcode.QR_CODE);
+        allClient.subscribe(Barcode.ALL_FORMATS);
+
+        service.publishBarcode(Barcode.QR_CODE, "qr");
+        service.publishBarcode(Barcode.EAN_13, "ean");
+        service.publishBarcode(Barcode.QR_CODE, "qr");
+        assertTrue(qrClient.batches.isEmpty());
+
+        ShadowLooper.idleMainLooper(BarcodeScannerService.BATCH_INTERVAL);
+
+        assertEquals(1, qrClient.batches.size());
+        assertEquals(1, qrClient.batches.get(0).size());
+        assertEquals("qr", qrClient.batches.get(0).getRawValue(0));
+        assertEquals(1, allClient.batches.size());
+        assertEquals(2, allClient.batches.get(0).size());
+        assertEquals(Barcode.EAN_13, allClient.batches.get(0).getFormat(1));
+    }
+
+    @Test
+    public void fullBatch_isSentImmediately() throws RemoteException {
+        TestClient client = new TestClient();
+        client.subscribe(Barcode.ALL_FORMATS);
+
+        for (int i = 0; i < BarcodeScannerService.BATCH_CAPACITY; i++) {
+            service.publishBarcode(Barcode.QR_CODE, "qr" + i);
+        }
+
+        assertEquals(1, client.batches.size());
+        assertEquals(BarcodeScannerService.BATCH_CAPACITY, client.batches.get(0).size());
+    }
+
+    @Test
+    public void lastUnsubscribe_stopsScanningAfterLinger() throws RemoteException {
+        TestClient first = new TestClient();
+        TestClient second = new TestClient();
+        first.subscribe(Barcode.ALL_FORMATS);
+        second.subscribe(Barcode.ALL_FORMATS);
+
+        first.unsubscribe();
+        ShadowLooper.idleMainLooper(BarcodeScannerService.CAMERA_LINGER);
+        assertEquals(0, service.stopCount);
+
+        second.unsubscribe();
+        assertEquals(0, service.getSubscriberCount());
+        assertEquals(0, service.stopCount);
+        ShadowLooper.idleMainLooper(BarcodeScannerService.CAMERA_LINGER);
+        assertEquals(1, service.stopCount);
+    }
+
+    @Test
+    public void batch_roundTripsThroughBundle() {
+        ScanResultBatch batch = new ScanResultBatch(2);
+        assertTrue(batch.add(Barcode.QR_CODE, "qr", 10L));
+        assertTrue(batch.add(Barcode.QR_CODE, "qr", 20L));
+        assertTrue(batch.add(Barcode.EAN_13, "ean", 30L));
+        assertFalse(batch.add(Barcode.EAN_8, "ean8", 40L));
+
+        ScanResultBatch received = ScanResultBatch.fromBundle(batch.toBundle());
+
+        assertNotNull(received);
+        assertEquals(2, received.size());
+        assertEquals(20L, received.getTimestamp(0));
+        assertEquals("ean", received.getRawValue(1));
+        assertEquals(Barcode.EAN_13, received.getFormat(1));
+    }
+
+    /**
+     * Service without camera.
+     */
+    public static class TestService extends BarcodeScannerService {
+
+        int startCount;
+        int stopCount;
+
+        @Override
+        void startCamera() {
+            startCount++;
+        }
+
+        @Override
+        void stopCamera() {
+            stopCount++;
+        }
+    }
+
+    private class TestClient {
+
+        final List<ScanResultBatch> batches = new ArrayList<>();
+        final List<Integer> states = new ArrayList<>();
+        final Messenger messenger = new Messenger(new Handler(Looper.getMainLooper()) {
+            @Override
+            public void handleMessage(Message msg) {
+                if (msg.what == BarcodeScannerService.MSG_RESULTS) {
+                    batches.add(ScanResultBatch.fromBundle(msg.getData()));
+                } else if (msg.what == BarcodeScannerService.MSG_STATE) {
+                    states.add(msg.arg1);
+                }
+            }
+        });
+
+        void subscribe(final int formats) throws RemoteException {
+            Message msg = Message.obtain(null, BarcodeScannerService.MSG_SUBSCRIBE, formats, 0);
+            msg.replyTo = messenger;
+            serviceMessenger.send(msg);
+        }
+
+        void unsubscribe() throws RemoteException {
+            Message msg = Message.obtain(null, BarcodeScannerService.MSG_UNSUBSCRIBE);
+            msg.replyTo = messenger;
+            serviceMessenger.send(msg);
+        }
+    }
+}
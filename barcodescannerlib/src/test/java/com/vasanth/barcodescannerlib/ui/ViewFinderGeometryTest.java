@@ -0,0 +1,97 @@
+package com.vasanth.barcodescannerlib.ui;
+
+import com.vasanth.barcodescannerlib.acceptance.AcceptanceContext;
+import com.vasanth.barcodescannerlib.acceptance.AcceptancePolicy;
+import com.vasanth.barcodescannerlib.acceptance.AcceptancePolicyChain;
+import com.vasanth.barcodescannerlib.acceptance.BarcodeCandidate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link ViewFinderGeometry}.
+ * <p>
+ * Detections are upright, so reverse landscape / portrait share the geometry of landscape / portrait.
+ * Mapped barcode's are checked using the default AcceptancePolicyChain, as BarcodeScannerActivity does.
+ */
+public class ViewFinderGeometryTest {
+
+    // Camera preview is always reported in sensor (landscape) orientation.
+    private static final int PREVIEW_WIDTH = 1600;
+    private static final int PREVIEW_HEIGHT = 1200;
+
+    // 1920 x 1440 screen - Scale 1.2, view finder 1200 x 675 centered.
+    private static final int[] LANDSCAPE_VIEW_FINDER = {360, 382, 1560, 1057};
+    // 1440 x 1920 screen, upright preview is 1200 x 1600 - Scale 1.2, view finder 900 x 506 centered.
+    private static final int[] PORTRAIT_VIEW_FINDER = {270, 707, 1170, 1213};
+
+    @Test
+    public void landscape_acceptsCenteredBarcode() {
+        ViewFinderGeometry geometry = new ViewFinderGeometry();
+        update(geometry, 1920, 1440, LANDSCAPE_VIEW_FINDER);
+
+        assertEquals(1.2, geometry.getScaleX(), 0.0001);
+        assertEquals(1.2, geometry.getScaleY(), 0.0001);
+        // Preview 500..1100 x 550..650 -> Screen 600..1320 x 660..780, crosses laser line 719.
+        assertEquals(600, geometry.toScreenX(500));
+        assertEquals(780, geometry.toScreenY(650));
+        assertEquals(AcceptancePolicy.RESULT_ACCEPTED, evaluate(geometry, LANDSCAPE_VIEW_FINDER, 500, 550, 1100, 650));
+    }
+
+    @Test
+    public void landscape_rejectsBarcodeOffLaserLine() {
+        ViewFinderGeometry geometry = new ViewFinderGeometry();
+        update(geometry, 1920, 1440, LANDSCAPE_VIEW_FINDER);
+
+        // Inside view finder, but above laser line.
+        assertEquals(AcceptancePolicy.REASON_OFF_LASER_LINE, evaluate(geometry, LANDSCAPE_VIEW_FINDER, 500, 400, 1100, 500));
+        // Crosses laser line, but outside view finder.
+        assertEquals(AcceptancePolicy.REASON_OUTSIDE_VIEW_FINDER, evaluate(geometry, LANDSCAPE_VIEW_FINDER, 100, 550, 1100, 650));
+    }
+
+    @Test
+    public void portrait_swapsPreviewAxes() {
+        ViewFinderGeometry geometry = new ViewFinderGeometry();
+        update(geometry, 1440, 1920, PORTRAIT_VIEW_FINDER);
+
+        assertEquals(1.2, geometry.getScaleX(), 0.0001);
+        assertEquals(1.2, geometry.getScaleY(), 0.0001);
+        assertEquals(960, geometry.getLaserLineY());
+        // Preview 300..900 x 750..850 -> Screen 360..1080 x 900..1020.
+        assertEquals(AcceptancePolicy.RESULT_ACCEPTED, evaluate(geometry, PORTRAIT_VIEW_FINDER, 300, 750, 900, 850));
+        // Same barcode in landscape coordinates would be outside the view finder.
+        assertEquals(AcceptancePolicy.REASON_OUTSIDE_VIEW_FINDER, evaluate(geometry, PORTRAIT_VIEW_FINDER, 750, 300, 850, 900));
+    }
+
+    @Test
+    public void update_recomputesOnlyWhenInputChanges() {
+        ViewFinderGeometry geometry = new ViewFinderGeometry();
+
+        assertTrue(update(geometry, 1920, 1440, LANDSCAPE_VIEW_FINDER));
+        assertFalse(update(geometry, 1920, 1440, LANDSCAPE_VIEW_FINDER));
+        assertTrue(update(geometry, 1440, 1920, PORTRAIT_VIEW_FINDER));
+    }
+
+    @Test
+    public void invalidPreview_isNotValid() {
+        ViewFinderGeometry geometry = new ViewFinderGeometry();
+        geometry.update(1920, 1440, 0, 0, 360, 382, 1560, 1057);
+
+        assertFalse(geometry.isValid());
+    }
+
+    // PRIVATE METHODS.
+    private static boolean update(final ViewFinderGeometry geometry, final int screenWidth, final int screenHeight, final int[] viewFinder) {
+        return geometry.update(screenWidth, screenHeight, PREVIEW_WIDTH, PREVIEW_HEIGHT, viewFinder[0], viewFinder[1], viewFinder[2], viewFinder[3]);
+    }
+
+    private static int evaluate(final ViewFinderGeometry geometry, final int[] viewFinder,
+                                final int left, final int top, final int right, final int bottom) {
+        BarcodeCandidate candidate = new BarcodeCandidate();
+        candidate.set(geometry.toScreenX(left), geometry.toScreenY(top), geometry.toScreenX(right), geometry.toScreenY(bottom), 0);
+        AcceptanceContext context = new AcceptanceContext();
+        context.set(viewFinder[0], viewFinder[1], viewFinder[2], viewFinder[3], geometry.getLaserLineY(), null);
+        return AcceptancePolicyChain.createDefault().evaluate(candidate, context);
+    }
+}